@@ -0,0 +1,243 @@
+package org.purejava.secret.api;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the load DBus calls put on the Secret Service daemon.
+ * <br>
+ * Daemons like <code>gnome-keyring-daemon</code> handle one request at a time and slow down badly when flooded.
+ * Calls are therefore admitted only while fewer than the limit of calls are in flight and, if a rate is set,
+ * while the token bucket holds a token. Other calls wait for their turn; a call that waited longer than the
+ * maximum queue time is rejected.
+ * <br>
+ * When adaptive, the limit follows the observed latency the AIMD way: it grows by one per limit worth of calls
+ * faster than the latency threshold and is halved when a call is slower or fails for a transient reason.
+ */
+public class AdmissionController {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong queueTimeNanos = new AtomicLong();
+
+    private Settings settings;
+    private double limit;
+    private int inFlight = 0;
+    private int waiting = 0;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    /**
+     * @param maxInFlight      The limit of calls in flight, the initial limit when adaptive.
+     * @param minInFlight      The lowest limit when adaptive.
+     * @param adaptive         Whether the limit adapts to the observed latency.
+     * @param latencyThreshold The latency above which the daemon is considered overloaded, when adaptive.
+     * @param ratePerSecond    The number of calls admitted per second, or 0 for no rate limit.
+     * @param burst            The number of calls admitted at once, before the rate limit applies.
+     * @param maxQueueTime     How long a call waits for admission at most, before it is rejected.
+     */
+    public record Settings(int maxInFlight,
+                           int minInFlight,
+                           boolean adaptive,
+                           Duration latencyThreshold,
+                           double ratePerSecond,
+                           int burst,
+                           Duration maxQueueTime) {
+
+        public static final Settings DEFAULT =
+                new Settings(64, 1, false, Duration.ofMillis(250), 0, 0, Duration.ofMinutes(1));
+
+        public Settings {
+            if (minInFlight < 1 || maxInFlight < minInFlight) {
+                throw new IllegalArgumentException("Invalid limits: " + minInFlight + ".." + maxInFlight);
+            }
+            if (ratePerSecond < 0 || burst < 0) {
+                throw new IllegalArgumentException("Invalid rate: " + ratePerSecond + "/s, burst " + burst);
+            }
+        }
+    }
+
+    private static class Holder {
+        private static final AdmissionController INSTANCE = new AdmissionController(Settings.DEFAULT);
+    }
+
+    public AdmissionController(Settings settings) {
+        configure(settings);
+    }
+
+    /**
+     * @return The admission controller for the calls on the connection of the {@link ConnectionManager}.
+     */
+    public static AdmissionController getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Change the settings. Calls in flight are not affected.
+     *
+     * @param settings The new settings.
+     */
+    public void configure(Settings settings) {
+        lock.lock();
+        try {
+            this.settings = settings;
+            this.limit = settings.maxInFlight();
+            this.tokens = Math.max(1, settings.burst());
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until a call is admitted.
+     *
+     * @return The permit of the call, which must be released once the call returned, or null, if the call
+     * got rejected, because it waited too long or the thread got interrupted.
+     */
+    public Permit acquire() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            long deadline = start + settings.maxQueueTime().toNanos();
+            waiting++;
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    long wait = deadline - now;
+                    if (inFlight < (int) limit) {
+                        long tokenWait = takeToken(now);
+                        if (tokenWait == 0) {
+                            break;
+                        }
+                        wait = Math.min(wait, tokenWait);
+                    }
+                    if (deadline - now <= 0) {
+                        rejected.incrementAndGet();
+                        return null;
+                    }
+                    changed.awaitNanos(wait);
+                }
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+        long admittedAt = System.nanoTime();
+        admitted.incrementAndGet();
+        queueTimeNanos.addAndGet(admittedAt - start);
+        return new Permit(admittedAt);
+    }
+
+    /**
+     * @return 0, if a token was taken, the time to wait for the next token otherwise.
+     */
+    private long takeToken(long now) {
+        double rate = settings.ratePerSecond();
+        if (rate <= 0) {
+            return 0;
+        }
+        double capacity = Math.max(1, settings.burst());
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * rate / TimeUnit.SECONDS.toNanos(1));
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens--;
+            return 0;
+        }
+        return Math.max(1, (long) ((1 - tokens) * TimeUnit.SECONDS.toNanos(1) / rate));
+    }
+
+    private void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (settings.adaptive()) {
+                if (overloaded || latencyNanos > settings.latencyThreshold().toNanos()) {
+                    limit = Math.max(settings.minInFlight(), limit / 2);
+                } else {
+                    limit = Math.min(settings.maxInFlight(), limit + 1 / limit);
+                }
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admission of one call.
+     */
+    public final class Permit {
+        private final long admittedAt;
+
+        private Permit(long admittedAt) {
+            this.admittedAt = admittedAt;
+        }
+
+        /**
+         * @param overloaded Whether the call failed in a way that hints at an overloaded daemon, e.g. a timeout.
+         */
+        public void release(boolean overloaded) {
+            AdmissionController.this.release(System.nanoTime() - admittedAt, overloaded);
+        }
+    }
+
+    /**
+     * @return The current limit of calls in flight.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of calls waiting for admission.
+     */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAdmitted() {
+        return admitted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * @return The total time admitted calls waited for admission.
+     */
+    public Duration getQueueTime() {
+        return Duration.ofNanos(queueTimeNanos.get());
+    }
+}
@@ -0,0 +1,128 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBus;
+import org.purejava.secret.api.DBusMessageHandler.DBusResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Resolves collection aliases such as 'default' and remembers the result.
+ * <br>
+ * The known aliases are dropped whenever a collection gets created or deleted, when an alias is set through
+ * {@link Service#setAlias(String, DBusPath)} and when the Secret Service daemon changes. On
+ * <code>CollectionChanged</code>, which is also how an alias set by another process shows, the known aliases are
+ * read again in the background, once for a burst of signals. Item signals resolve the default alias while
+ * handling storms of <code>CollectionChanged</code>, so they keep getting the known aliases meanwhile.
+ */
+public class AliasResolver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AliasResolver.class);
+    public static final String DEFAULT = "default";
+
+    private final Map<String, DBusPath> aliases = new ConcurrentHashMap<>();
+    private final Function<String, DBusResult<DBusPath>> readAlias;
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+
+    private static class Holder {
+        private static final AliasResolver INSTANCE = new AliasResolver(Service.shared()::readAlias);
+    }
+
+    private AliasResolver(Function<String, DBusResult<DBusPath>> readAlias) {
+        this.readAlias = readAlias;
+        DBusConnection connection = ConnectionManager.getInstance().getConnection();
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.addSigHandler(org.purejava.secret.interfaces.Service.CollectionCreated.class, signal -> clear());
+            connection.addSigHandler(org.purejava.secret.interfaces.Service.CollectionDeleted.class, signal -> clear());
+            connection.addSigHandler(org.purejava.secret.interfaces.Service.CollectionChanged.class, signal -> refreshLater());
+            connection.addSigHandler(DBus.NameOwnerChanged.class, signal -> {
+                if (Static.Service.SECRETS.equals(signal.name)) {
+                    clear();
+                }
+            });
+        } catch (DBusException e) {
+            LOG.error(e.toString(), e.getCause());
+        }
+    }
+
+    public static AliasResolver getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Get the collection an alias points to.
+     *
+     * @param name An alias, such as 'default'.
+     * @return The collection or the path '/' if no such collection exists, in case the alias is known or the
+     * DBus call succeeded, the DBus error otherwise.
+     */
+    public DBusResult<DBusPath> resolve(String name) {
+        if (Util.varIsEmpty(name)) {
+            return readAlias.apply(name);
+        }
+        var known = aliases.get(name);
+        if (known != null) {
+            return new DBusResult.Success<>(known);
+        }
+        var result = readAlias.apply(name);
+        if (result instanceof DBusResult.Success<DBusPath> success && success.value() != null) {
+            aliases.put(name, success.value());
+        }
+        return result;
+    }
+
+    /**
+     * @return The default collection or the path '/' if there is none, in case the alias is known or the
+     * DBus call succeeded, the DBus error otherwise.
+     */
+    public DBusResult<DBusPath> defaultCollection() {
+        return resolve(DEFAULT);
+    }
+
+    /**
+     * Forget the collection an alias points to.
+     *
+     * @param name The alias.
+     */
+    public void invalidate(String name) {
+        aliases.remove(name);
+    }
+
+    private void refreshLater() {
+        if (aliases.isEmpty() || !refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        ExecutionMode.current().executor().execute(this::refresh);
+    }
+
+    private void refresh() {
+        // signals arriving from now on may be about changes this refresh does not see, so they get another one
+        refreshPending.set(false);
+        for (String name : List.copyOf(aliases.keySet())) {
+            var result = readAlias.apply(name);
+            if (result instanceof DBusResult.Success<DBusPath> success && success.value() != null) {
+                aliases.put(name, success.value());
+            } else {
+                aliases.remove(name);
+            }
+        }
+    }
+
+    /**
+     * Forget all aliases.
+     */
+    public void clear() {
+        aliases.clear();
+    }
+}
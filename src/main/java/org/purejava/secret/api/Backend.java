@@ -0,0 +1,35 @@
+package org.purejava.secret.api;
+
+import java.util.Locale;
+
+/**
+ * The implementations of the Secret Service this library knows to behave differently.
+ */
+public enum Backend {
+    GNOME_KEYRING,
+    KWALLET,
+    KEEPASSXC,
+    UNKNOWN;
+
+    /**
+     * @param processName The name of the process owning the bus name, as found in <code>/proc/&lt;pid&gt;/comm</code>.
+     * @return The backend run by the process, or {@link #UNKNOWN}.
+     */
+    public static Backend fromProcessName(String processName) {
+        if (processName == null) {
+            return UNKNOWN;
+        }
+        // comm is truncated to 15 characters, e.g. "gnome-keyring-d"
+        var name = processName.strip().toLowerCase(Locale.ROOT);
+        if (name.startsWith("gnome-keyring")) {
+            return GNOME_KEYRING;
+        }
+        if (name.startsWith("kwalletd") || name.startsWith("ksecretd")) {
+            return KWALLET;
+        }
+        if (name.startsWith("keepassxc")) {
+            return KEEPASSXC;
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,37 @@
+package org.purejava.secret.api;
+
+/**
+ * What the detected Secret Service implementation does well, which the library uses to pick its strategy.
+ *
+ * @param backend              The detected backend.
+ * @param batchedSecrets       Whether secrets are rather retrieved with one <code>GetSecrets</code> call per
+ *                             batch than with one <code>GetSecret</code> call per item.
+ * @param reliableItemSignals  Whether <code>ItemCreated</code>, <code>ItemChanged</code> and
+ *                             <code>ItemDeleted</code> are emitted for every change, so that caches can be
+ *                             invalidated by signals instead of polling.
+ * @param getAll               Whether all properties of an object can be read with a single
+ *                             <code>GetAll</code> call.
+ * @param masterPasswordUnlock Whether collections can be unlocked without a prompt, see {@link GnomeKeyring}.
+ */
+public record BackendCapabilities(Backend backend,
+                                  boolean batchedSecrets,
+                                  boolean reliableItemSignals,
+                                  boolean getAll,
+                                  boolean masterPasswordUnlock) {
+
+    /**
+     * @param backend The backend.
+     * @return The capabilities known for the backend. An unknown backend gets the conservative ones, that only
+     * rely on what every implementation of the specification handles.
+     */
+    public static BackendCapabilities of(Backend backend) {
+        return switch (backend) {
+            case GNOME_KEYRING -> new BackendCapabilities(backend, true, true, true, true);
+            // the bridge to the wallet does not signal changes made through the KWallet API
+            case KWALLET -> new BackendCapabilities(backend, true, false, true, false);
+            case KEEPASSXC -> new BackendCapabilities(backend, true, true, true, false);
+            // one item, that cannot be read, does not fail a whole batch
+            case UNKNOWN -> new BackendCapabilities(backend, false, false, false, false);
+        };
+    }
+}
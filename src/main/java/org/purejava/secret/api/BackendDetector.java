@@ -0,0 +1,122 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Finds out which implementation of the Secret Service owns its bus name, once per owner.
+ * <br>
+ * The name of the owning process is the strongest hint. Where <code>/proc</code> is not accessible, e.g. in a
+ * sandbox, the interfaces exported by the service and the paths of its collections are looked at instead.
+ */
+public class BackendDetector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BackendDetector.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile BackendCapabilities capabilities;
+
+    private static class Holder {
+        private static final BackendDetector INSTANCE = new BackendDetector();
+    }
+
+    private BackendDetector() {
+        DBusConnection connection = ConnectionManager.getInstance().getConnection();
+        if (connection == null) {
+            return;
+        }
+        try {
+            // another implementation may take over the bus name
+            connection.addSigHandler(DBus.NameOwnerChanged.class, signal -> {
+                if (Static.Service.SECRETS.equals(signal.name)) {
+                    reset();
+                }
+            });
+        } catch (DBusException e) {
+            LOG.error(e.toString(), e.getCause());
+        }
+    }
+
+    public static BackendDetector getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return The capabilities of the current Secret Service, detected on the first call.
+     */
+    public BackendCapabilities capabilities() {
+        var known = capabilities;
+        if (known != null) {
+            return known;
+        }
+        lock.lock();
+        try {
+            if (capabilities == null) {
+                var backend = detect();
+                LOG.debug("Detected Secret Service backend {}", backend);
+                capabilities = BackendCapabilities.of(backend);
+            }
+            return capabilities;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Use the given backend, instead of detecting it, e.g. for a backend the detection does not recognize.
+     *
+     * @param backend The backend.
+     */
+    public void override(Backend backend) {
+        capabilities = BackendCapabilities.of(backend);
+    }
+
+    /**
+     * Forget the detected backend, the next call to {@link #capabilities()} detects it again.
+     */
+    public void reset() {
+        capabilities = null;
+    }
+
+    private Backend detect() {
+        var byProcess = Backend.fromProcessName(ownerProcessName());
+        if (byProcess != Backend.UNKNOWN) {
+            return byProcess;
+        }
+        if (new GnomeKeyring().isSupported()) {
+            return Backend.GNOME_KEYRING;
+        }
+        if (Service.shared().getCollections() instanceof DBusMessageHandler.DBusResult.Success<List<DBusPath>> success) {
+            var paths = success.value().stream().map(DBusPath::getPath).toList();
+            if (paths.contains(Static.DBusPath.KDEWALLET_COLLECTION)) {
+                return Backend.KWALLET;
+            }
+        }
+        return Backend.UNKNOWN;
+    }
+
+    private static String ownerProcessName() {
+        DBusConnection connection = ConnectionManager.getInstance().getConnection();
+        if (connection == null) {
+            return null;
+        }
+        try {
+            var bus = connection.getRemoteObject("org.freedesktop.DBus", "/org/freedesktop/DBus", DBus.class);
+            var pid = bus.GetConnectionUnixProcessID(Static.Service.SECRETS);
+            return Files.readString(Path.of("/proc", pid.toString(), "comm"));
+        } catch (DBusException | IOException | RuntimeException e) {
+            LOG.debug("Could not find the process owning {}: {}", Static.Service.SECRETS, e.toString());
+            return null;
+        }
+    }
+}
@@ -6,16 +6,27 @@ import org.freedesktop.dbus.exceptions.DBusException;
 import org.freedesktop.dbus.interfaces.Properties;
 import org.freedesktop.dbus.types.UInt64;
 import org.freedesktop.dbus.types.Variant;
+import org.purejava.secret.api.errors.DBusCallException;
+import org.purejava.secret.api.errors.SecretIsLockedException;
+import org.purejava.secret.api.errors.SecretNoSuchObjectException;
+import org.purejava.secret.api.handlers.ItemBatchHandler;
 import org.purejava.secret.api.handlers.ItemChangedHandler;
 import org.purejava.secret.api.handlers.ItemCreatedHandler;
 import org.purejava.secret.api.handlers.ItemDeletedHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.function.LongFunction;
 
 public class Collection extends DBusMessageHandler<org.purejava.secret.interfaces.Collection> {
 
@@ -23,23 +34,26 @@ public class Collection extends DBusMessageHandler<org.purejava.secret.interface
     private static final String LABEL = "org.freedesktop.Secret.Collection.Label";
     private static final String COLLECTION_NOT_AVAILABLE = "Collection not available on DBus";
     private static final DBusConnection connection;
-    private static DBusPath defaultCollection;
-
-    private final List<ItemCreatedHandler> itemCreatedHandlers = new CopyOnWriteArrayList<>();
-    private final List<ItemChangedHandler> itemChangedHandlers = new CopyOnWriteArrayList<>();
-    private final List<ItemDeletedHandler> itemDeletedHandlers = new CopyOnWriteArrayList<>();
+    // the number of CreateItem calls createItems keeps in flight
+    public static final int PIPELINE_DEPTH = 32;
+
+    private final List<SignalDispatcher.Subscription<DBusPath>> itemCreatedHandlers = new CopyOnWriteArrayList<>();
+    private final List<SignalDispatcher.Subscription<DBusPath>> itemChangedHandlers = new CopyOnWriteArrayList<>();
+    private final List<SignalDispatcher.Subscription<DBusPath>> itemDeletedHandlers = new CopyOnWriteArrayList<>();
+    private final List<SignalCoalescer> itemBatchHandlers = new CopyOnWriteArrayList<>();
+    private final SecretEventPublisher events = new SecretEventPublisher(Flow.defaultBufferSize());
+    private final CollectionFingerprint fingerprint = new CollectionFingerprint(this);
     private final DBusPath path;
 
     static {
         connection = ConnectionManager.getInstance().getConnection();
-        var service = new Service();
-        var getName = service.readAlias("default");
-        if (getName instanceof DBusResult.Success<DBusPath> success) {
-            defaultCollection = success.value();
-        }
     }
 
     public Collection(DBusPath path) {
+        this(path, true);
+    }
+
+    private Collection(DBusPath path, boolean followSignals) {
         super(Static.Service.SECRETS, path.getPath(), org.purejava.secret.interfaces.Collection.class);
 
         this.path = path;
@@ -54,21 +68,38 @@ public class Collection extends DBusMessageHandler<org.purejava.secret.interface
                     path.getPath(),
                     Properties.class);
 
-            Collection.connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemCreated.class, this::notifyOnItemCreated);
-            Collection.connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemChanged.class, this::notifyOnItemChanged);
-            Collection.connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemDeleted.class, this::notifyOnItemDeleted);
+            if (followSignals) {
+                Collection.connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemCreated.class, this::notifyOnItemCreated);
+                Collection.connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemChanged.class, this::notifyOnItemChanged);
+                Collection.connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemDeleted.class, this::notifyOnItemDeleted);
+            }
 
         } catch (DBusException e) {
             COLLECTION_LOG.error(e.toString(), e.getCause());
         }
     }
 
+    /**
+     * A collection for a few calls, that does not follow the item signals. Handlers added to it never get called,
+     * but nothing stays registered with the connection once it is no longer used.
+     *
+     * @param path The path of the collection.
+     * @return The collection.
+     */
+    static Collection transientProxy(DBusPath path) {
+        return new Collection(path, false);
+    }
 
     @Override
     protected String getUnavailableMessage() {
         return COLLECTION_NOT_AVAILABLE;
     }
 
+    @Override
+    protected boolean isNegativelyCached() {
+        return true;
+    }
+
     public static Map<String, Variant<?>> createProperties(String label) {
         HashMap<String, Variant<?>> properties = new HashMap<>();
         properties.put(LABEL, new Variant<>(label));
@@ -95,7 +126,16 @@ public class Collection extends DBusMessageHandler<org.purejava.secret.interface
      * @see DBusPath
      */
     public DBusResult<List<DBusPath>> searchItems(Map<String, String> attributes) {
-        return dBusCall("SearchItems", getDBusPath(), () -> remote.SearchItems(attributes));
+        var negativeLookups = NegativeLookupCache.getInstance();
+        if (negativeLookups.isKnownEmpty(getDBusPath(), attributes)) {
+            return new DBusResult.Success<>(new ArrayList<>());
+        }
+        var result = dBusRead("SearchItems", getDBusPath(), attributes == null ? null : new HashMap<>(attributes),
+                () -> remote.SearchItems(attributes));
+        if (result instanceof DBusResult.Success<List<DBusPath>> success && success.value().isEmpty()) {
+            negativeLookups.recordEmpty(getDBusPath(), attributes);
+        }
+        return result;
     }
 
     /**
@@ -141,7 +181,106 @@ public class Collection extends DBusMessageHandler<org.purejava.secret.interface
             COLLECTION_LOG.error("Cannot createItem as required secret is missing");
             return null;
         }
-        return dBusCall("CreateItem", getDBusPath(), () -> remote.CreateItem(properties, secret, replace));
+        var result = dBusCall("CreateItem", getDBusPath(), replace,
+                () -> remote.CreateItem(properties, secret, replace));
+        if (result instanceof DBusResult.Success<Pair<DBusPath, DBusPath>> success) {
+            NegativeLookupCache.getInstance().objectCreated(success.value().a.getPath());
+        }
+        return result;
+    }
+
+    /**
+     * Create many items at once, e.g. to seed a keyring.
+     * <br>
+     * The secrets are encrypted in parallel with the given session and up to {@link #PIPELINE_DEPTH}
+     * <code>CreateItem</code> calls are in flight at the same time, so the Secret Service always has the next
+     * call at hand. Items that need a prompt, because the collection is locked, are not prompted for one by one:
+     * their prompts are dismissed, the collection is unlocked with a single prompt, waited for at most
+     * {@link Service#DEFAULT_PROMPT_TIMEOUT}, and these items are created afterwards.
+     *
+     * @param specs   The items to create.
+     * @param session The session to encrypt the secrets with.
+     * @param replace Whether to replace items with the same attributes or not.
+     * @return For each spec, in the same order, the item created in case the DBus call succeeded, the DBus error
+     * otherwise.
+     */
+    public List<DBusResult<DBusPath>> createItems(List<ItemSpec> specs, EncryptedSession session, boolean replace) {
+        List<DBusResult<DBusPath>> results = new ArrayList<>(Collections.nCopies(specs.size(), null));
+        List<Integer> all = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            all.add(i);
+        }
+
+        var needPrompt = createPipelined(specs, all, session, replace, results);
+        if (!needPrompt.isEmpty()) {
+            COLLECTION_LOG.debug("{} items need a prompt, unlocking {} once", needPrompt.size(), getDBusPath());
+            if (unlockWithPrompt()) {
+                needPrompt = createPipelined(specs, needPrompt, session, replace, results);
+            }
+            for (int i : needPrompt) {
+                results.set(i, new DBusResult.Failure<>(new SecretIsLockedException("CreateItem", getDBusPath(), null)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return The indices of the items that need a prompt.
+     */
+    private List<Integer> createPipelined(List<ItemSpec> specs,
+                                          List<Integer> indices,
+                                          EncryptedSession session,
+                                          boolean replace,
+                                          List<DBusResult<DBusPath>> results) {
+
+        var created = Pipeline.<Integer, DBusResult<Pair<DBusPath, DBusPath>>>map(indices, PIPELINE_DEPTH,
+                i -> createItem(specs.get(i), session, replace),
+                error -> new DBusResult.Failure<>(new DBusCallException("Failed to create item", error)));
+        List<Integer> needPrompt = new ArrayList<>();
+        for (int n = 0; n < indices.size(); n++) {
+            int i = indices.get(n);
+            switch (created.get(n)) {
+                case DBusResult.Success<Pair<DBusPath, DBusPath>> success
+                        when "/".equals(success.value().a.getPath()) && !"/".equals(success.value().b.getPath()) -> {
+                    // the item gets created again after unlocking, so its own prompt is never performed
+                    Prompt.dismiss(success.value().b);
+                    needPrompt.add(i);
+                }
+                case DBusResult.Success<Pair<DBusPath, DBusPath>> success ->
+                        results.set(i, new DBusResult.Success<>(success.value().a));
+                case DBusResult.Failure<Pair<DBusPath, DBusPath>> failure ->
+                        results.set(i, new DBusResult.Failure<>(failure.error()));
+            }
+        }
+        return needPrompt;
+    }
+
+    private DBusResult<Pair<DBusPath, DBusPath>> createItem(ItemSpec spec, EncryptedSession session, boolean replace) {
+        Secret secret;
+        try {
+            secret = session.encrypt(spec.secret(), spec.contentType());
+        } catch (GeneralSecurityException e) {
+            return new DBusResult.Failure<>(new DBusCallException("Failed to encrypt secret for " + spec.label(), e));
+        }
+        return createItem(Item.createProperties(spec.label(), spec.attributes()), secret, replace);
+    }
+
+    private boolean unlockWithPrompt() {
+        var collection = new DBusPath(getDBusPath());
+        switch (Service.shared().unlock(List.of(collection))) {
+            case DBusResult.Success<Pair<List<DBusPath>, DBusPath>> success -> {
+                if ("/".equals(success.value().b.getPath())) {
+                    return success.value().a.contains(collection);
+                }
+                var unlocked = Util.promptAndGetResultAsArrayList(success.value().b, Service.DEFAULT_PROMPT_TIMEOUT);
+                LockStateCache.getInstance().update(unlocked, false);
+                return unlocked.contains(collection);
+            }
+            case DBusResult.Failure<Pair<List<DBusPath>, DBusPath>> failure -> {
+                COLLECTION_LOG.warn("Failed to unlock {}", getDBusPath(), failure.error());
+                return false;
+            }
+        }
     }
 
     /**
@@ -214,50 +353,282 @@ public class Collection extends DBusMessageHandler<org.purejava.secret.interface
         );
     }
 
+    /**
+     * Read the Modified property of many items, with up to {@link #PIPELINE_DEPTH} calls in flight.
+     *
+     * @param items The items, usually items of this collection.
+     * @return The unix time when each item was last modified. Items whose property could not be read are left out.
+     */
+    public Map<DBusPath, Long> getModified(List<DBusPath> items) {
+        Map<DBusPath, Long> result = new HashMap<>();
+        readModified(items).forEach((item, modified) -> {
+            if (modified instanceof DBusResult.Success<Long> success) {
+                result.put(item, success.value());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Like {@link #getModified(List)}, but keeps the error of every item whose property could not be read, so
+     * callers can tell a deleted item ({@link SecretNoSuchObjectException}) from a failed call.
+     *
+     * @param items The items, usually items of this collection.
+     * @return The unix time when each item was last modified or the DBus error, for every item.
+     */
+    Map<DBusPath, DBusResult<Long>> readModified(List<DBusPath> items) {
+        var modified = Pipeline.<DBusPath, DBusResult<UInt64>>map(items, PIPELINE_DEPTH,
+                item -> new Item(item).getModified(),
+                error -> new DBusResult.Failure<>(new DBusCallException("Failed to read Modified", error)));
+        Map<DBusPath, DBusResult<Long>> result = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            result.put(items.get(i), switch (modified.get(i)) {
+                case DBusResult.Success<UInt64> success when success.value() != null ->
+                        new DBusResult.Success<>(success.value().longValue());
+                case DBusResult.Success<UInt64> ignored ->
+                        new DBusResult.Failure<>(new DBusCallException("Failed to read Modified", null));
+                case DBusResult.Failure<UInt64> failure -> new DBusResult.Failure<>(failure.error());
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Compute a digest over the paths and Modified timestamps of the items of this collection, that changes
+     * whenever an item gets created, changed or deleted.
+     * <br>
+     * The first call reads the Modified property of all items. From then on, this object follows the item signals
+     * and later calls only re-read the items reported since, so they do not touch the Secret Service at all
+     * while nothing changed. That is, unless the backend does not signal every change.
+     *
+     * @return The fingerprint, in case listing the items succeeded, the DBus error otherwise.
+     * @see CollectionFingerprint
+     */
+    public DBusResult<Long> fingerprint() {
+        return fingerprint.compute();
+    }
+
+    /**
+     * Reload whatever was derived from this collection, if it changed since.
+     *
+     * @param previousFingerprint The fingerprint of the collection, when the data was loaded last.
+     * @param reload              Loads the data again, given the current fingerprint to keep for the next call.
+     * @param <T>                 The type of the loaded data.
+     * @return The reloaded data or nothing, if the collection is unchanged, in case computing the fingerprint
+     * succeeded, the DBus error otherwise.
+     */
+    public <T> DBusResult<Optional<T>> reloadIfChanged(long previousFingerprint, LongFunction<T> reload) {
+        return switch (fingerprint()) {
+            case DBusResult.Success<Long> current when current.value() == previousFingerprint ->
+                    new DBusResult.Success<>(Optional.empty());
+            case DBusResult.Success<Long> current ->
+                    new DBusResult.Success<>(Optional.ofNullable(reload.apply(current.value())));
+            case DBusResult.Failure<Long> failure -> new DBusResult.Failure<>(failure.error());
+        };
+    }
+
+    /**
+     * Forget the fingerprint, e.g. after signals may have been lost. The next call to {@link #fingerprint()}
+     * reads all items again.
+     */
+    public void resetFingerprint() {
+        fingerprint.reset();
+    }
+
     public String getDBusPath() {
         return path.getPath();
     }
 
+    /**
+     * Whether an item belongs to this collection, judged by its path alone. Item signals of all collections
+     * arrive at every collection, so this tells apart the ones about its own items. A collection opened through
+     * an alias contains the items of the collection the alias points to.
+     *
+     * @param item The path of an item.
+     * @return True, if the item is directly within this collection.
+     */
+    boolean contains(DBusPath item) {
+        int lastSlash = item.getPath().lastIndexOf('/');
+        if (lastSlash < 0) {
+            return false;
+        }
+        String parent = item.getPath().substring(0, lastSlash);
+        if (parent.equals(getDBusPath())) {
+            return true;
+        }
+        String aliases = Static.DBusPath.ALIASES + "/";
+        return getDBusPath().startsWith(aliases)
+                && AliasResolver.getInstance().resolve(getDBusPath().substring(aliases.length()))
+                        instanceof DBusResult.Success<DBusPath> success
+                && parent.equals(success.value().getPath());
+    }
+
     private void notifyOnItemCreated(org.purejava.secret.interfaces.Collection.ItemCreated signal) {
-        if (signal.item.getPath().startsWith(getDBusPath()) ||
-                signal.item.getPath().startsWith(defaultCollection.getPath())) {
-            itemCreatedHandlers.forEach(handler -> handler.onItemCreated(signal.item));
+        if (contains(signal.item)) {
+            itemCreatedHandlers.forEach(subscription -> subscription.offer(signal.item));
+            itemBatchHandlers.forEach(coalescer -> coalescer.created(signal.item));
+            fingerprint.created(signal.item);
+            events.publish(new SecretEvent(SecretEvent.Type.ITEM_CREATED, signal.item));
         }
     }
     private void notifyOnItemChanged(org.purejava.secret.interfaces.Collection.ItemChanged signal) {
-        if (signal.item.getPath().startsWith(getDBusPath()) ||
-            signal.item.getPath().startsWith(defaultCollection.getPath())) {
-            itemChangedHandlers.forEach(handler -> handler.onItemChanged(signal.item));
+        if (contains(signal.item)) {
+            itemChangedHandlers.forEach(subscription -> subscription.offer(signal.item));
+            itemBatchHandlers.forEach(coalescer -> coalescer.changed(signal.item));
+            fingerprint.changed(signal.item);
+            events.publish(new SecretEvent(SecretEvent.Type.ITEM_CHANGED, signal.item));
         }
     }
     private void notifyOnItemDeleted(org.purejava.secret.interfaces.Collection.ItemDeleted signal) {
-        if (signal.item.getPath().startsWith(getDBusPath()) ||
-                signal.item.getPath().startsWith(defaultCollection.getPath())) {
-            itemDeletedHandlers.forEach(handler -> handler.onItemDeleted(signal.item));
+        if (contains(signal.item)) {
+            itemDeletedHandlers.forEach(subscription -> subscription.offer(signal.item));
+            itemBatchHandlers.forEach(coalescer -> coalescer.deleted(signal.item));
+            fingerprint.deleted(signal.item);
+            events.publish(new SecretEvent(SecretEvent.Type.ITEM_DELETED, signal.item));
         }
     }
 
     public void addItemCreatedHandler(ItemCreatedHandler handler) {
-        itemCreatedHandlers.add(handler);
+        subscribeItemCreated(handler);
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeItemCreated(ItemCreatedHandler handler) {
+        return subscribeItemCreated(handler, SignalDispatcher.getDefault().getPolicy());
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @param policy  What to do with a signal, when the queue of the handler is full.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeItemCreated(ItemCreatedHandler handler, SignalDispatcher.OverflowPolicy policy) {
+        var subscription = SignalDispatcher.getDefault().<DBusPath>subscribe(handler, handler::onItemCreated, policy);
+        itemCreatedHandlers.add(subscription);
+        return subscription;
     }
 
     public void removeItemCreatedHandler(ItemCreatedHandler handler) {
-        itemCreatedHandlers.remove(handler);
+        itemCreatedHandlers.removeIf(subscription -> {
+            if (subscription.isFor(handler)) {
+                subscription.close();
+                return true;
+            }
+            return false;
+        });
     }
 
     public void addItemChangedHandler(ItemChangedHandler handler) {
-        itemChangedHandlers.add(handler);
+        subscribeItemChanged(handler);
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeItemChanged(ItemChangedHandler handler) {
+        return subscribeItemChanged(handler, SignalDispatcher.getDefault().getPolicy());
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @param policy  What to do with a signal, when the queue of the handler is full.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeItemChanged(ItemChangedHandler handler, SignalDispatcher.OverflowPolicy policy) {
+        var subscription = SignalDispatcher.getDefault().<DBusPath>subscribe(handler, handler::onItemChanged, policy);
+        itemChangedHandlers.add(subscription);
+        return subscription;
     }
 
     public void removeItemChangedHandler(ItemChangedHandler handler) {
-        itemChangedHandlers.remove(handler);
+        itemChangedHandlers.removeIf(subscription -> {
+            if (subscription.isFor(handler)) {
+                subscription.close();
+                return true;
+            }
+            return false;
+        });
     }
 
     public void addItemDeletedHandler(ItemDeletedHandler handler) {
-        itemDeletedHandlers.add(handler);
+        subscribeItemDeleted(handler);
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeItemDeleted(ItemDeletedHandler handler) {
+        return subscribeItemDeleted(handler, SignalDispatcher.getDefault().getPolicy());
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @param policy  What to do with a signal, when the queue of the handler is full.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeItemDeleted(ItemDeletedHandler handler, SignalDispatcher.OverflowPolicy policy) {
+        var subscription = SignalDispatcher.getDefault().<DBusPath>subscribe(handler, handler::onItemDeleted, policy);
+        itemDeletedHandlers.add(subscription);
+        return subscription;
     }
 
     public void removeItemDeletedHandler(ItemDeletedHandler handler) {
-        itemDeletedHandlers.remove(handler);
+        itemDeletedHandlers.removeIf(subscription -> {
+            if (subscription.isFor(handler)) {
+                subscription.close();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * @return The stream of the item events, delivered on demand of its subscribers.
+     */
+    public SecretEventPublisher events() {
+        return events;
+    }
+
+    /**
+     * Register a handler, which gets the item signals collected over a window of time as one batch, with
+     * each item mentioned at most once. This keeps the work of the handler proportional to the number of
+     * distinct changes during signal storms, e.g. caused by bulk imports.
+     *
+     * @param handler The handler.
+     * @param window  How long signals are collected, before they get delivered.
+     * @return The coalescer of the handler, which provides the signal and batch counts.
+     */
+    public SignalCoalescer addItemBatchHandler(ItemBatchHandler handler, Duration window) {
+        var coalescer = new SignalCoalescer(handler, window,
+                batch -> handler.onItems(batch.created(), batch.changed(), batch.deleted()));
+        itemBatchHandlers.add(coalescer);
+        return coalescer;
+    }
+
+    public void removeItemBatchHandler(ItemBatchHandler handler) {
+        itemBatchHandlers.removeIf(coalescer -> {
+            if (coalescer.isFor(handler)) {
+                coalescer.close();
+                return true;
+            }
+            return false;
+        });
     }
 }
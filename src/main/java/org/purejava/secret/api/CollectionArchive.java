@@ -0,0 +1,343 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.purejava.secret.api.DBusMessageHandler.DBusResult;
+import org.purejava.secret.api.errors.DBusCallException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the items of a collection into a compact binary archive and back, e.g. to back up a collection or to
+ * move it to another machine.
+ * <br>
+ * The archive starts with the magic bytes <code>SSCA</code> and a version byte, followed by one record per item.
+ * Each record is prefixed with its length and holds the label, the attributes, the content type, the created and
+ * modified timestamps, and the secret encrypted with AES-GCM under a key the caller supplies. The metadata of a
+ * record is authenticated along with its secret. A record length of 0 ends the archive.
+ * <br>
+ * Items are processed in batches of {@link #BATCH_SIZE}, so memory use does not grow with the size of the
+ * collection: on export, the secrets of a batch are retrieved with {@link Service#getSecrets(List, EncryptedSession)},
+ * on import, the items of a batch are created with {@link Collection#createItems(List, EncryptedSession, boolean)}.
+ */
+public class CollectionArchive {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CollectionArchive.class);
+    private static final byte[] MAGIC = "SSCA".getBytes(StandardCharsets.US_ASCII);
+    private static final byte VERSION = 1;
+    private static final String AES_GCM = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+    public static final int BATCH_SIZE = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private CollectionArchive() {
+        // prevent instantiation
+    }
+
+    /**
+     * The outcome of an export. Items whose secret or metadata could not be read are left out of the archive,
+     * so a caller taking a backup needs to check {@link #isComplete()}.
+     *
+     * @param total   The number of items in the collection.
+     * @param written The number of items written to the archive.
+     * @param skipped The items left out of the archive, as they could not be read.
+     */
+    public record Export(long total, long written, List<DBusPath> skipped) {
+        public Export {
+            skipped = List.copyOf(skipped);
+        }
+
+        /**
+         * @return True, if all items of the collection were written to the archive.
+         */
+        public boolean isComplete() {
+            return skipped.isEmpty();
+        }
+    }
+
+    /**
+     * Write all items of a collection to an archive file. The archive is written to a temporary file next to it
+     * first, that replaces the archive only once it is complete, so a failed export never leaves a truncated
+     * archive behind and keeps a previous archive at the same place. An export, that skipped items which could
+     * not be read, does replace it, see {@link Export#isComplete()}.
+     *
+     * @param collection The collection to export. It needs to be unlocked.
+     * @param session    The session to retrieve the secrets with.
+     * @param key        The AES key to encrypt the secrets in the archive with.
+     * @param archive    The file to write the archive to.
+     * @return The numbers of items in the collection and written, and the items skipped, in case the DBus
+     * calls succeeded, the DBus error otherwise.
+     * @throws IOException              Writing the archive failed.
+     * @throws GeneralSecurityException Decrypting a secret or encrypting it for the archive failed.
+     */
+    public static DBusResult<Export> export(Collection collection,
+                                          EncryptedSession session,
+                                          SecretKey key,
+                                          Path archive) throws IOException, GeneralSecurityException {
+
+        Path target = archive.toAbsolutePath();
+        Path partial = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".partial");
+        try {
+            DBusResult<Export> result;
+            try (var out = Files.newOutputStream(partial)) {
+                result = export(collection, session, key, out);
+            }
+            if (result instanceof DBusResult.Success<Export>) {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return result;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Write all items of a collection to an archive.
+     * <br>
+     * If the export fails, the stream holds the beginning of an archive without its end marker, which
+     * {@link #importInto(Collection, EncryptedSession, SecretKey, InputStream, boolean)} rejects as corrupt.
+     * Use {@link #export(Collection, EncryptedSession, SecretKey, Path)} to not replace a previous archive with it.
+     *
+     * @param collection The collection to export. It needs to be unlocked.
+     * @param session    The session to retrieve the secrets with.
+     * @param key        The AES key to encrypt the secrets in the archive with.
+     * @param archive    The stream to write the archive to. It is not closed.
+     * @return The numbers of items in the collection and written, and the items skipped, in case the DBus
+     * calls succeeded, the DBus error otherwise.
+     * @throws IOException              Writing the archive failed.
+     * @throws GeneralSecurityException Decrypting a secret or encrypting it for the archive failed.
+     */
+    public static DBusResult<Export> export(Collection collection,
+                                          EncryptedSession session,
+                                          SecretKey key,
+                                          OutputStream archive) throws IOException, GeneralSecurityException {
+
+        var items = collection.getItems();
+        if (items instanceof DBusResult.Failure<List<DBusPath>> failure) {
+            return new DBusResult.Failure<>(failure.error());
+        }
+        List<DBusPath> paths = ((DBusResult.Success<List<DBusPath>>) items).value();
+
+        var out = new DataOutputStream(archive);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        long written = 0;
+        List<DBusPath> skipped = new ArrayList<>();
+        for (int from = 0; from < paths.size(); from += BATCH_SIZE) {
+            List<DBusPath> batch = paths.subList(from, Math.min(paths.size(), from + BATCH_SIZE));
+            var secrets = session.getService().getSecrets(batch, session);
+            if (!(secrets instanceof DBusResult.Success<Map<DBusPath, Secret>> success)) {
+                return new DBusResult.Failure<>(secrets instanceof DBusResult.Failure<Map<DBusPath, Secret>> failure
+                        ? failure.error()
+                        : new DBusCallException("Failed to retrieve secrets", null));
+            }
+            var metadata = Pipeline.map(batch, Collection.PIPELINE_DEPTH, CollectionArchive::readMetadata, error -> null);
+            for (int i = 0; i < batch.size(); i++) {
+                var secret = success.value().get(batch.get(i));
+                if (secret == null || metadata.get(i) == null) {
+                    LOG.warn("Skipped exporting {}, as it could not be read", batch.get(i).getPath());
+                    skipped.add(batch.get(i));
+                    continue;
+                }
+                writeRecord(out, metadata.get(i), secret, session, key);
+                written++;
+            }
+        }
+        out.writeInt(0);
+        out.flush();
+        return new DBusResult.Success<>(new Export(paths.size(), written, skipped));
+    }
+
+    /**
+     * Create the items of an archive in a collection. Their created and modified timestamps are set by the
+     * Secret Service, as these properties are read-only.
+     *
+     * @param collection The collection to import into. It gets unlocked, if needed.
+     * @param session    The session to encrypt the secrets with.
+     * @param key        The AES key the secrets in the archive are encrypted with.
+     * @param archive    The stream to read the archive from. It is not closed.
+     * @param replace    Whether to replace items with the same attributes or not.
+     * @return For each record of the archive, in the same order, the item created in case the DBus call
+     * succeeded, the DBus error otherwise.
+     * @throws IOException              Reading the archive failed or it is corrupt.
+     * @throws GeneralSecurityException Decrypting a secret of the archive failed, e.g. because of a wrong key.
+     */
+    public static List<DBusResult<DBusPath>> importInto(Collection collection,
+                                                        EncryptedSession session,
+                                                        SecretKey key,
+                                                        InputStream archive,
+                                                        boolean replace) throws IOException, GeneralSecurityException {
+
+        var in = new DataInputStream(archive);
+        byte[] magic = in.readNBytes(MAGIC.length);
+        if (!Arrays.equals(MAGIC, magic) || in.readByte() != VERSION) {
+            throw new IOException("Not a collection archive of version " + VERSION);
+        }
+        List<DBusResult<DBusPath>> results = new ArrayList<>();
+        List<ItemSpec> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            int length;
+            while ((length = in.readInt()) != 0) {
+                if (length < 0 || length > MAX_RECORD_BYTES) {
+                    throw new IOException("Corrupt archive, record of " + length + " bytes");
+                }
+                batch.add(readRecord(in.readNBytes(length), length, key));
+                if (batch.size() == BATCH_SIZE) {
+                    results.addAll(collection.createItems(batch, session, replace));
+                    clear(batch);
+                }
+            }
+            results.addAll(collection.createItems(batch, session, replace));
+        } catch (EOFException e) {
+            throw new IOException("Corrupt archive, it ends unexpectedly", e);
+        } finally {
+            clear(batch);
+        }
+        return results;
+    }
+
+    private static ItemMetadata readMetadata(DBusPath path) {
+        return new Item(path).getMetadata() instanceof DBusResult.Success<ItemMetadata> success ? success.value() : null;
+    }
+
+    private static void writeRecord(DataOutputStream out,
+                                    ItemMetadata metadata,
+                                    Secret secret,
+                                    EncryptedSession session,
+                                    SecretKey key) throws IOException, GeneralSecurityException {
+
+        var header = new ByteArrayOutputStream();
+        var headerOut = new DataOutputStream(header);
+        writeString(headerOut, metadata.label());
+        headerOut.writeInt(metadata.attributes().size());
+        for (var attribute : metadata.attributes().entrySet()) {
+            writeString(headerOut, attribute.getKey());
+            writeString(headerOut, attribute.getValue());
+        }
+        writeString(headerOut, secret.getContentType());
+        headerOut.writeLong(metadata.created());
+        headerOut.writeLong(metadata.modified());
+        byte[] headerBytes = header.toByteArray();
+
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+        var cipher = Cipher.getInstance(AES_GCM);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(headerBytes);
+        byte[] ciphertext;
+        try (var plain = session.decryptToBuffer(secret)) {
+            ciphertext = seal(cipher, plain.asByteBuffer());
+        }
+
+        out.writeInt(headerBytes.length + Integer.BYTES + IV_BYTES + Integer.BYTES + ciphertext.length);
+        out.write(headerBytes);
+        out.writeInt(IV_BYTES);
+        out.write(iv);
+        out.writeInt(ciphertext.length);
+        out.write(ciphertext);
+    }
+
+    // the cipher gets the plain secret chunk by chunk through an array of our own, that is wiped afterwards,
+    // as handing it the off-heap buffer would make it copy the secret to temporary arrays nobody wipes
+    private static byte[] seal(Cipher cipher, ByteBuffer plain) throws GeneralSecurityException {
+        byte[] ciphertext = new byte[cipher.getOutputSize(plain.remaining())];
+        byte[] chunk = new byte[Math.min(EncryptedSession.CHUNK_SIZE, plain.remaining())];
+        try {
+            int sealed = 0;
+            while (plain.hasRemaining()) {
+                int length = Math.min(chunk.length, plain.remaining());
+                plain.get(chunk, 0, length);
+                sealed += cipher.update(chunk, 0, length, ciphertext, sealed);
+            }
+            sealed += cipher.doFinal(ciphertext, sealed);
+            return sealed == ciphertext.length ? ciphertext : Arrays.copyOf(ciphertext, sealed);
+        } finally {
+            Secret.clear(chunk);
+        }
+    }
+
+    private static ItemSpec readRecord(byte[] record, int length, SecretKey key)
+            throws IOException, GeneralSecurityException {
+
+        if (record.length != length) {
+            throw new EOFException();
+        }
+        var in = new DataInputStream(new ByteArrayInputStream(record));
+        String label = readString(in);
+        int attributeCount = in.readInt();
+        if (attributeCount < 0) {
+            throw new IOException("Corrupt archive, negative number of attributes");
+        }
+        Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.put(readString(in), readString(in));
+        }
+        String contentType = readString(in);
+        in.readLong(); // created
+        in.readLong(); // modified
+        int headerLength = record.length - in.available();
+
+        byte[] iv = readBytes(in);
+        byte[] ciphertext = readBytes(in);
+        var cipher = Cipher.getInstance(AES_GCM);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(record, 0, headerLength);
+        byte[] plain = cipher.doFinal(ciphertext);
+        try {
+            return new ItemSpec(label, attributes, plain, ContentType.parse(contentType));
+        } catch (RuntimeException e) {
+            // the record never made it into a batch, which would have wiped the secret
+            Secret.clear(plain);
+            throw e;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Corrupt archive, field of " + length + " bytes");
+        }
+        return in.readNBytes(length);
+    }
+
+    private static void clear(List<ItemSpec> batch) {
+        batch.forEach(spec -> Secret.clear(spec.secret()));
+        batch.clear();
+    }
+}
@@ -0,0 +1,168 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.purejava.secret.api.DBusMessageHandler.DBusResult;
+import org.purejava.secret.api.errors.SecretNoSuchObjectException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Digest over the item paths of a collection and their Modified timestamps, that changes whenever an item gets
+ * created, changed or deleted.
+ * <br>
+ * The digest is the sum of a 64-bit hash per item, so it does not depend on the order of the items and can be
+ * updated item by item. The first computation reads the Modified property of all items, later ones only re-read
+ * the items the item signals of the collection reported since, so they cost nothing while nothing changed.
+ * Backends, that do not signal every change, get all items read on every computation, see
+ * {@link BackendCapabilities#reliableItemSignals()}.
+ */
+public class CollectionFingerprint {
+
+    private final Collection collection;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Long> modified = new HashMap<>();
+    // filled from the signal handlers, which must not wait for a computation in progress
+    private final Set<DBusPath> changed = ConcurrentHashMap.newKeySet();
+    private final Set<DBusPath> deleted = ConcurrentHashMap.newKeySet();
+    private volatile boolean tracking = false;
+    private long value = 0;
+
+    CollectionFingerprint(Collection collection) {
+        this.collection = collection;
+    }
+
+    /**
+     * @param path     The path of an item.
+     * @param modified The unix time when the item was last modified.
+     * @return The share of the item in the digest.
+     */
+    public static long digest(String path, long modified) {
+        return mix(mix(path.hashCode()) + modified * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * @param items The Modified timestamps by item path.
+     * @return The digest over all items.
+     */
+    public static long of(Map<String, Long> items) {
+        long sum = 0;
+        for (var item : items.entrySet()) {
+            sum += digest(item.getKey(), item.getValue());
+        }
+        return sum;
+    }
+
+    // finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    void created(DBusPath item) {
+        if (tracking && collection.contains(item)) {
+            deleted.remove(item);
+            changed.add(item);
+        }
+    }
+
+    void changed(DBusPath item) {
+        created(item);
+    }
+
+    void deleted(DBusPath item) {
+        if (tracking && collection.contains(item)) {
+            changed.remove(item);
+            deleted.add(item);
+        }
+    }
+
+    /**
+     * @return The current digest, in case listing the items succeeded, the DBus error otherwise.
+     */
+    DBusResult<Long> compute() {
+        lock.lock();
+        try {
+            if (!BackendDetector.getInstance().capabilities().reliableItemSignals()) {
+                // signals would not tell about every change, so do not rely on them
+                tracking = false;
+            }
+            if (!tracking) {
+                // signals arriving during the first computation get applied by the next one
+                tracking = true;
+                changed.clear();
+                deleted.clear();
+                var items = collection.getItems();
+                if (!(items instanceof DBusResult.Success<List<DBusPath>> success)) {
+                    tracking = false;
+                    return new DBusResult.Failure<>(((DBusResult.Failure<List<DBusPath>>) items).error());
+                }
+                modified.clear();
+                value = 0;
+                update(success.value());
+                return new DBusResult.Success<>(value);
+            }
+            for (DBusPath item : List.copyOf(deleted)) {
+                deleted.remove(item);
+                remove(item.getPath());
+            }
+            if (!changed.isEmpty()) {
+                List<DBusPath> items = new ArrayList<>(changed);
+                changed.removeAll(items);
+                update(items);
+            }
+            return new DBusResult.Success<>(value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget the digest, the next computation reads all items again.
+     */
+    void reset() {
+        lock.lock();
+        try {
+            tracking = false;
+            changed.clear();
+            deleted.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(List<DBusPath> items) {
+        var current = collection.readModified(items);
+        for (DBusPath item : items) {
+            switch (current.get(item)) {
+                case DBusResult.Success<Long> success -> {
+                    remove(item.getPath());
+                    modified.put(item.getPath(), success.value());
+                    value += digest(item.getPath(), success.value());
+                }
+                // the item got deleted in the meantime
+                case DBusResult.Failure<Long> failure when failure.error() instanceof SecretNoSuchObjectException ->
+                        remove(item.getPath());
+                // keep the previous timestamp and read the item again on the next computation
+                case DBusResult.Failure<Long> failure -> {
+                    if (!deleted.contains(item)) {
+                        changed.add(item);
+                    }
+                }
+            }
+        }
+    }
+
+    private void remove(String path) {
+        Long previous = modified.remove(path);
+        if (previous != null) {
+            value -= digest(path, previous);
+        }
+    }
+}
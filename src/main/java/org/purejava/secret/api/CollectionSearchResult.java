@@ -0,0 +1,16 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+
+import java.util.List;
+
+/**
+ * The items of one collection, that matched a search across all collections.
+ *
+ * @param collection The collection.
+ * @param label      The displayable label of the collection, or null, if it could not be read.
+ * @param locked     Whether the collection is locked. True, if the lock state could not be read.
+ * @param items      The items that matched.
+ */
+public record CollectionSearchResult(DBusPath collection, String label, boolean locked, List<DBusPath> items) {
+}
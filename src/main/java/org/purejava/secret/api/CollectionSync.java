@@ -0,0 +1,394 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.purejava.secret.api.DBusMessageHandler.DBusResult;
+import org.purejava.secret.api.errors.SecretNoSuchObjectException;
+import org.purejava.secret.api.handlers.ItemBatchHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One-way sync of a source collection into a {@link SyncTarget}, e.g. another collection.
+ * <br>
+ * The sync remembers the Modified timestamp of every item it transferred. The first pass compares all items,
+ * later passes only look at the items the <code>ItemCreated</code>, <code>ItemChanged</code> and
+ * <code>ItemDeleted</code> signals of the source collection reported, so their cost is proportional to the number
+ * of changes. When running on a schedule, passes follow the signals closely and otherwise poll adaptively:
+ * the interval is reset to the minimum after a pass found changes and doubles up to the maximum after a pass
+ * that found none. Every pass at the maximum interval compares all items again, in case signals got lost.
+ * Backends, that do not signal every change, get all items compared on every pass, see
+ * {@link BackendCapabilities#reliableItemSignals()}.
+ */
+public class CollectionSync implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CollectionSync.class);
+    private static final Duration SIGNAL_WINDOW = Duration.ofMillis(200);
+    /**
+     * The attribute, that marks an item as the copy of a source item made by {@link #into(Collection, EncryptedSession)}.
+     */
+    public static final String SOURCE_ATTRIBUTE = "sync-source";
+
+    private final Collection source;
+    private final EncryptedSession session;
+    private final SyncTarget target;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<DBusPath, Long> synced = new HashMap<>();
+    private final Set<DBusPath> dirty = ConcurrentHashMap.newKeySet();
+    private final ItemBatchHandler onItems = (created, changed, deleted) -> {
+        dirty.addAll(created);
+        dirty.addAll(changed);
+        dirty.addAll(deleted);
+        onSignal();
+    };
+    private boolean fullPassDone = false;
+    private Duration minInterval;
+    private Duration maxInterval;
+    private Duration interval;
+    private ScheduledFuture<?> next;
+    private boolean closed = false;
+
+    /**
+     * The changes transferred by a pass.
+     *
+     * @param created The number of items created in the target.
+     * @param changed The number of items updated in the target.
+     * @param deleted The number of items deleted from the target.
+     * @param failed  The number of changes that could not be transferred and are tried again on the next pass.
+     */
+    public record Result(int created, int changed, int deleted, int failed) {
+        public boolean hasChanges() {
+            return created + changed + deleted + failed > 0;
+        }
+    }
+
+    private static class Holder {
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("secret-service-sync").daemon(true).factory());
+    }
+
+    /**
+     * @param source  The collection to mirror.
+     * @param session The session to retrieve the secrets with.
+     * @param target  Where to mirror the collection to.
+     */
+    public CollectionSync(Collection source, EncryptedSession session, SyncTarget target) {
+        this.source = source;
+        this.session = session;
+        this.target = target;
+        source.addItemBatchHandler(onItems, SIGNAL_WINDOW);
+    }
+
+    /**
+     * The copies get the attribute {@link #SOURCE_ATTRIBUTE} with the path of their source item on top of the
+     * attributes of the source item. Copies are found by this attribute only, so items of the target collection,
+     * that do not stem from the sync, are never replaced or deleted, even if their attributes are the same.
+     *
+     * @param target  The collection to mirror into.
+     * @param session The session to create the items with.
+     * @return A target that mirrors into another collection.
+     */
+    public static SyncTarget into(Collection target, EncryptedSession session) {
+        return new CollectionTarget(target, session);
+    }
+
+    /**
+     * Run one pass. Only items reported by signals since the previous pass are looked at, unless this is the
+     * first pass.
+     *
+     * @return The changes transferred, in case listing the items of the source succeeded, the DBus error otherwise.
+     */
+    public DBusResult<Result> sync() {
+        return sync(false);
+    }
+
+    /**
+     * Run one pass that compares all items.
+     *
+     * @return The changes transferred, in case listing the items of the source succeeded, the DBus error otherwise.
+     */
+    public DBusResult<Result> fullSync() {
+        return sync(true);
+    }
+
+    private DBusResult<Result> sync(boolean full) {
+        lock.lock();
+        try {
+            Set<DBusPath> candidates;
+            Set<DBusPath> present;
+            // without reliable signals, the dirty items are not all there is to look at
+            if (full || !fullPassDone || !BackendDetector.getInstance().capabilities().reliableItemSignals()) {
+                // drained before listing, so items reported while listing are looked at again on the next pass
+                Set<DBusPath> reported = new HashSet<>(dirty);
+                dirty.removeAll(reported);
+                var items = source.getItems();
+                if (!(items instanceof DBusResult.Success<List<DBusPath>> success)) {
+                    dirty.addAll(reported);
+                    return new DBusResult.Failure<>(((DBusResult.Failure<List<DBusPath>>) items).error());
+                }
+                present = new HashSet<>(success.value());
+                candidates = new HashSet<>(present);
+                candidates.addAll(synced.keySet());
+            } else {
+                Set<DBusPath> reported = new HashSet<>(dirty);
+                dirty.removeAll(reported);
+                // never pick up items of other collections, e.g. the copies made in the target
+                candidates = new HashSet<>();
+                for (DBusPath item : reported) {
+                    if (source.contains(item)) {
+                        candidates.add(item);
+                    }
+                }
+                present = null;
+            }
+            var result = transfer(candidates, present);
+            fullPassDone = fullPassDone || full || result.failed() == 0;
+            return new DBusResult.Success<>(result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Items, whose changes could not be transferred, are put back into {@link #dirty} for the next pass.
+     *
+     * @param present All items of the source, or null, if only the candidates are known.
+     */
+    private Result transfer(Set<DBusPath> candidates, Set<DBusPath> present) {
+        List<DBusPath> existing = new ArrayList<>();
+        for (DBusPath item : candidates) {
+            if (present == null || present.contains(item)) {
+                existing.add(item);
+            }
+        }
+        var modified = source.readModified(existing);
+
+        int created = 0, changed = 0, deleted = 0, failed = 0;
+        List<DBusPath> outdated = new ArrayList<>();
+        Map<DBusPath, Long> timestamps = new HashMap<>();
+        for (DBusPath item : candidates) {
+            // an item is only gone, if the full listing misses it or the Secret Service does not know it anymore,
+            // any other failure to read its Modified property must not wipe the copy
+            boolean gone = present != null && !present.contains(item);
+            switch (modified.get(item)) {
+                case null -> { }
+                case DBusResult.Success<Long> success -> {
+                    if (!success.value().equals(synced.get(item))) {
+                        timestamps.put(item, success.value());
+                        outdated.add(item);
+                    }
+                }
+                case DBusResult.Failure<Long> failure when failure.error() instanceof SecretNoSuchObjectException -> gone = true;
+                case DBusResult.Failure<Long> failure -> {
+                    LOG.debug("Failed to read Modified of {}", item.getPath(), failure.error());
+                    failed++;
+                    dirty.add(item);
+                }
+            }
+            if (gone && synced.containsKey(item)) {
+                if (target.delete(item)) {
+                    synced.remove(item);
+                    deleted++;
+                } else {
+                    failed++;
+                    dirty.add(item);
+                }
+            }
+        }
+
+        for (int from = 0; from < outdated.size(); from += CollectionArchive.BATCH_SIZE) {
+            var batch = outdated.subList(from, Math.min(outdated.size(), from + CollectionArchive.BATCH_SIZE));
+            var secrets = session.getService().getSecrets(batch, session);
+            Map<DBusPath, Secret> values = secrets instanceof DBusResult.Success<Map<DBusPath, Secret>> success
+                    ? success.value()
+                    : Map.of();
+            for (DBusPath item : batch) {
+                var spec = read(item, values.get(item));
+                if (spec == null) {
+                    failed++;
+                    dirty.add(item);
+                    continue;
+                }
+                boolean isNew = !synced.containsKey(item);
+                try {
+                    if (target.upsert(item, spec)) {
+                        synced.put(item, timestamps.get(item));
+                        if (isNew) {
+                            created++;
+                        } else {
+                            changed++;
+                        }
+                    } else {
+                        failed++;
+                        dirty.add(item);
+                    }
+                } finally {
+                    Secret.clear(spec.secret());
+                }
+            }
+        }
+        var result = new Result(created, changed, deleted, failed);
+        if (result.hasChanges()) {
+            LOG.debug("Synced {}: {}", source.getDBusPath(), result);
+        }
+        return result;
+    }
+
+    private ItemSpec read(DBusPath path, Secret secret) {
+        if (secret == null) {
+            return null;
+        }
+        if (!(new Item(path).getMetadata() instanceof DBusResult.Success<ItemMetadata> metadata)) {
+            return null;
+        }
+        try (var plain = session.decryptToBuffer(secret)) {
+            byte[] bytes = new byte[plain.length()];
+            plain.asByteBuffer().get(bytes);
+            return new ItemSpec(metadata.value().label(), metadata.value().attributes(), bytes, secret.getParsedContentType());
+        } catch (GeneralSecurityException e) {
+            LOG.error("Failed to decrypt secret of {}", path.getPath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Run passes on a schedule, until the sync is closed.
+     *
+     * @param minInterval The interval after a pass that found changes, also the delay after signals.
+     * @param maxInterval The longest interval between passes.
+     */
+    public void start(Duration minInterval, Duration maxInterval) {
+        lock.lock();
+        try {
+            this.minInterval = minInterval;
+            this.maxInterval = maxInterval;
+            this.interval = minInterval;
+            schedule(Duration.ZERO);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSignal() {
+        lock.lock();
+        try {
+            if (next != null && next.getDelay(TimeUnit.NANOSECONDS) > minInterval.toNanos()) {
+                interval = minInterval;
+                schedule(minInterval);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void schedule(Duration delay) {
+        if (closed) {
+            return;
+        }
+        if (next != null) {
+            next.cancel(false);
+        }
+        next = Holder.SCHEDULER.schedule(
+                () -> ExecutionMode.current().executor().execute(this::scheduledPass),
+                delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void scheduledPass() {
+        boolean full;
+        lock.lock();
+        try {
+            full = interval.compareTo(maxInterval) >= 0;
+        } finally {
+            lock.unlock();
+        }
+        var result = sync(full);
+        lock.lock();
+        try {
+            if (result instanceof DBusResult.Success<Result> success && success.value().hasChanges()) {
+                interval = minInterval;
+            } else {
+                interval = interval.multipliedBy(2).compareTo(maxInterval) > 0 ? maxInterval : interval.multipliedBy(2);
+            }
+            schedule(interval);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop running passes and following the signals of the source collection.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+        source.removeItemBatchHandler(onItems);
+    }
+
+    private static final class CollectionTarget implements SyncTarget {
+
+        private final Collection collection;
+        private final EncryptedSession session;
+
+        private CollectionTarget(Collection collection, EncryptedSession session) {
+            this.collection = collection;
+            this.session = session;
+        }
+
+        @Override
+        public boolean upsert(DBusPath source, ItemSpec item) {
+            Map<String, String> attributes = new HashMap<>(item.attributes());
+            attributes.put(SOURCE_ATTRIBUTE, source.getPath());
+            // with the marker among the attributes, only a copy of the same source item can get replaced
+            var copy = new ItemSpec(item.label(), attributes, item.secret(), item.contentType());
+            var result = collection.createItems(List.of(copy), session, true).getFirst();
+            if (!(result instanceof DBusResult.Success<DBusPath> success)) {
+                return false;
+            }
+            // a previous copy is left over, if the attributes of the source item changed
+            return deleteCopies(source, success.value());
+        }
+
+        @Override
+        public boolean delete(DBusPath source) {
+            return deleteCopies(source, null);
+        }
+
+        private boolean deleteCopies(DBusPath source, DBusPath keep) {
+            var copies = collection.searchItems(Map.of(SOURCE_ATTRIBUTE, source.getPath()));
+            if (!(copies instanceof DBusResult.Success<List<DBusPath>> success)) {
+                return false;
+            }
+            boolean deleted = true;
+            for (DBusPath copy : success.value()) {
+                if (copy.equals(keep)) {
+                    continue;
+                }
+                var result = new Item(copy).delete();
+                deleted &= result instanceof DBusResult.Success<DBusPath> done && "/".equals(done.value().getPath());
+            }
+            return deleted;
+        }
+    }
+}
@@ -9,18 +9,19 @@ import org.slf4j.LoggerFactory;
 
 public class ConnectionManager {
     private static final Logger LOG = LoggerFactory.getLogger(ConnectionManager.class);
-    private static ConnectionManager instance;
-    private DBusConnection connection;
+    private final DBusConnection connection;
+
+    private static class Holder {
+        // initialized lazily and thread-safe by the class loader, without holding a monitor
+        private static final ConnectionManager INSTANCE = new ConnectionManager();
+    }
 
     private ConnectionManager() {
         this.connection = createConnection();
     }
 
-    public static synchronized ConnectionManager getInstance() {
-        if (instance == null) {
-            instance = new ConnectionManager();
-        }
-        return instance;
+    public static ConnectionManager getInstance() {
+        return Holder.INSTANCE;
     }
 
     public DBusConnection getConnection() {
@@ -0,0 +1,160 @@
+package org.purejava.secret.api;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable content type of a secret, consisting of a MIME type and an optional charset.
+ * <br>
+ * Instances are interned by their canonical form, e.g. <code>text/plain; charset=utf-8</code>, so that
+ * equal content types share one instance. Parsed strings are cached, which keeps the parsing
+ * out of the way when reading the same kind of secret over and over again.
+ */
+public final class ContentType {
+
+    static final int MAX_CACHED = 64;
+    private static final String CHARSET_STRING = "charset=";
+
+    private static final Map<String, ContentType> PARSED = new ConcurrentHashMap<>();
+    private static final Map<String, ContentType> INTERNED = new ConcurrentHashMap<>();
+
+    public static final ContentType TEXT_PLAIN_UTF_8 = of(Secret.TEXT_PLAIN, StandardCharsets.UTF_8);
+    public static final ContentType APPLICATION_OCTET_STREAM = of(Secret.APPLICATION_OCTET_STREAM, null);
+
+    private final String mimeType;
+    private final Charset charset;
+    private final String value;
+
+    private ContentType(String mimeType, Charset charset) {
+        this.mimeType = mimeType;
+        this.charset = charset;
+        this.value = charset == null
+                ? mimeType
+                : mimeType + "; " + CHARSET_STRING + charset.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the content type for a MIME type and a charset.
+     *
+     * @param mimeType The MIME type, e.g. <code>text/plain</code>.
+     * @param charset  The charset or null, if the content type does not define one.
+     * @return The interned content type.
+     */
+    public static ContentType of(String mimeType, Charset charset) {
+        return intern(new ContentType(mimeType, charset));
+    }
+
+    /**
+     * Parse a content type string such as <code>text/plain; charset=utf-8</code>.
+     * <br>
+     * The string is split at whitespace, quotes, semicolons and commas. The first part is taken as
+     * MIME type, which defaults to <code>text/plain</code>. A charset is only recognized, when it is
+     * the one and only other part.
+     *
+     * @param contentType The content type string.
+     * @return The interned content type.
+     * @throws java.nio.charset.UnsupportedCharsetException when the charset is not supported.
+     */
+    public static ContentType parse(String contentType) {
+        if (contentType == null || contentType.isEmpty()) {
+            return TEXT_PLAIN_UTF_8;
+        }
+        var cached = PARSED.get(contentType);
+        if (cached != null) {
+            return cached;
+        }
+        var parsed = scan(contentType);
+        if (PARSED.size() < MAX_CACHED) {
+            PARSED.putIfAbsent(contentType, parsed);
+        }
+        return parsed;
+    }
+
+    private static ContentType scan(String contentType) {
+        String first = null;
+        String second = null;
+        int tokens = 0;
+        int length = contentType.length();
+        int i = 0;
+        while (i < length && tokens < 3) {
+            while (i < length && isSeparator(contentType.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !isSeparator(contentType.charAt(i))) {
+                i++;
+            }
+            // single characters do not make up a part
+            if (i - start > 1) {
+                tokens++;
+                if (tokens == 1) {
+                    first = contentType.substring(start, i);
+                } else if (tokens == 2) {
+                    second = contentType.substring(start, i);
+                }
+            }
+        }
+
+        String mimeType = first == null ? Secret.TEXT_PLAIN : first;
+        Charset charset = null;
+        if (tokens == 2 && second.startsWith(CHARSET_STRING)) {
+            charset = Charset.forName(second.substring(CHARSET_STRING.length()).toUpperCase(Locale.ROOT));
+        }
+        return of(mimeType, charset);
+    }
+
+    private static boolean isSeparator(char c) {
+        return switch (c) {
+            case ' ', '\t', '\n', '\u000B', '\f', '\r', '"', ';', ',' -> true;
+            default -> false;
+        };
+    }
+
+    private static ContentType intern(ContentType contentType) {
+        var interned = INTERNED.get(contentType.value);
+        if (interned != null) {
+            return interned;
+        }
+        if (INTERNED.size() >= MAX_CACHED) {
+            return contentType;
+        }
+        interned = INTERNED.putIfAbsent(contentType.value, contentType);
+        return interned == null ? contentType : interned;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * @return The charset or null, if the content type does not define one.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * @return The canonical form, as it is sent on DBus.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ContentType other && value.equals(other.value));
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
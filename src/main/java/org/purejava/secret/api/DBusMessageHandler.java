@@ -1,9 +1,19 @@
 package org.purejava.secret.api;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
 import org.freedesktop.dbus.interfaces.DBusInterface;
 import org.freedesktop.dbus.interfaces.Properties;
+import org.purejava.secret.api.errors.AdmissionRejectedException;
 import org.purejava.secret.api.errors.DBusCallException;
 import org.purejava.secret.api.errors.SecretIsLockedException;
 import org.purejava.secret.api.errors.SecretNoSessionException;
@@ -31,6 +41,11 @@ public abstract class DBusMessageHandler<T extends DBusInterface> {
     protected T remote;
     protected Properties properties;
 
+    private static final Map<Flight, CompletableFuture<DBusResult<?>>> IN_FLIGHT = new ConcurrentHashMap<>();
+    private static final AtomicLong SHARED_READS = new AtomicLong();
+
+    private record Flight(String busName, String path, String operation, Object arguments) {}
+
     protected DBusMessageHandler(String busName, String dbusPath, Class<T> iface) {
         if (null == dbusPath) {
             throw new IllegalArgumentException("DBusPath must not be null");
@@ -46,6 +61,14 @@ public abstract class DBusMessageHandler<T extends DBusInterface> {
 
     protected abstract String getUnavailableMessage();
 
+    /**
+     * @return True, when this object is an item or a collection, which the {@link NegativeLookupCache}
+     * remembers as missing, once the Secret Service reported it does not exist.
+     */
+    protected boolean isNegativelyCached() {
+        return false;
+    }
+
     /**
      * Result of a DBus operation.
      *
@@ -90,17 +113,148 @@ public abstract class DBusMessageHandler<T extends DBusInterface> {
         String operator,
         DBusOperation<R> action) {
 
+        if (operation.startsWith("Get(")) {
+            // property reads take no arguments
+            return dBusRead(operation, operator, null, action);
+        }
+        return dBusCall(operation, operator, RetryPolicy.isIdempotent(operation), action);
+    }
+
+    /**
+     * Executes a read-only DBus operation. Identical calls, i.e. the same operation with the same arguments on
+     * the same object, that are issued while one of them is in flight, share its round trip. Lists, maps and
+     * pairs of them in the result are copied for every caller that joins, so that callers can modify their
+     * result, like the one of an unshared call.
+     *
+     * @param operation name of the DBus operation
+     * @param operator object or entity on which the operation is performed
+     * @param arguments the arguments of the operation, compared by <code>equals</code>, or null if there are none
+     * @param action operation to execute
+     * @param <R> type of the returned value
+     * @return success or failure result
+     */
+    @SuppressWarnings("unchecked")
+    protected <R> DBusResult<R> dBusRead(
+        String operation,
+        String operator,
+        Object arguments,
+        DBusOperation<R> action) {
+
+        var key = new Flight(busName, dbusPath, operation, arguments);
+        var flight = new CompletableFuture<DBusResult<?>>();
+        var leader = IN_FLIGHT.putIfAbsent(key, flight);
+        if (leader != null) {
+            SHARED_READS.incrementAndGet();
+            return (DBusResult<R>) copyOf(leader.join());
+        }
+        try {
+            var result = dBusCall(operation, operator, true, action);
+            // snapshot the result, before the caller gets a chance to modify it
+            flight.complete(copyOf(result));
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            IN_FLIGHT.remove(key, flight);
+        }
+    }
+
+    private static DBusResult<?> copyOf(DBusResult<?> result) {
+        return result instanceof DBusResult.Success<?> success
+                ? new DBusResult.Success<>(copyOf(success.value()))
+                : result;
+    }
+
+    private static Object copyOf(Object value) {
+        return switch (value) {
+            case List<?> list -> new ArrayList<>(list);
+            case Map<?, ?> map -> new HashMap<>(map);
+            case Pair<?, ?> pair -> new Pair<>(copyOf(pair.a), copyOf(pair.b));
+            case null, default -> value;
+        };
+    }
+
+    /**
+     * @return The number of read calls that shared the round trip of an identical call in flight.
+     */
+    public static long getSharedReads() {
+        return SHARED_READS.get();
+    }
+
+    /**
+     * Executes a DBus operation and returns either its value or a mapped error. The operation is tried again
+     * according to the current {@link RetryPolicy}, if it failed for a transient reason and is idempotent.
+     *
+     * @param operation name of the DBus operation
+     * @param operator object or entity on which the operation is performed
+     * @param idempotent whether the operation can be repeated without changing its outcome
+     * @param action operation to execute
+     * @param <R> type of the returned value
+     * @return success or failure result
+     */
+    protected <R> DBusResult<R> dBusCall(
+        String operation,
+        String operator,
+        boolean idempotent,
+        DBusOperation<R> action) {
+
         if (!isUsable()) {
             var error = new DBusCallException(getUnavailableMessage(), null);
             return new DBusResult.Failure<>(error);
         }
 
-        try {
-            return new DBusResult.Success<>(action.call());
+        if (isNegativelyCached() && NegativeLookupCache.getInstance().isMissing(dbusPath)) {
+            LOG.debug("Skipped calling {} for {}, as it recently did not exist", operation, operator);
+            return new DBusResult.Failure<>(new SecretNoSuchObjectException(operation, operator, null));
+        }
+
+        var retryPolicy = RetryPolicy.current();
+        var admission = AdmissionController.getInstance();
+        for (int attempt = 1; ; attempt++) {
+            var permit = admission.acquire();
+            if (permit == null) {
+                var error = new AdmissionRejectedException(operation, operator);
+                FailureLog.getInstance().log(LOG, operation, operator, error);
+                return new DBusResult.Failure<>(error);
+            }
+            DBusCallException error = null;
+            try {
+                return new DBusResult.Success<>(action.call());
+
+            } catch (Exception e) {
+                error = mapDBusError(operation, operator, e);
+            } finally {
+                // a transient failure, like a timeout, hints at an overloaded daemon
+                permit.release(error != null && RetryPolicy.isTransient(error));
+            }
+
+            if (retryPolicy.shouldRetry(attempt, idempotent, error) && backOff(retryPolicy, attempt)) {
+                LOG.debug("Retrying {} for {} after attempt {} failed: {}", operation, operator, attempt, error.getMessage());
+                continue;
+            }
+            FailureLog.getInstance().log(LOG, operation, operator, error);
+            if (error instanceof SecretNoSuchObjectException && isNegativelyCached()) {
+                NegativeLookupCache.getInstance().recordMissing(dbusPath);
+            }
+            if (error instanceof SecretIsLockedException) {
+                // the object got locked without the cache learning about it
+                LockStateCache.getInstance().invalidate(new DBusPath(dbusPath));
+            }
+            return new DBusResult.Failure<>(error);
+        }
+    }
 
-        } catch (Exception e) {
-            LOG.warn("DBus error on calling {} for {}: {}", operation, operator, e.getMessage());
-            return new DBusResult.Failure<>(mapDBusError(operation, operator, e));
+    /**
+     * @return False, if the thread got interrupted while waiting.
+     */
+    private static boolean backOff(RetryPolicy retryPolicy, int attempt) {
+        try {
+            Thread.sleep(retryPolicy.backoff(attempt));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
@@ -109,25 +263,47 @@ public abstract class DBusMessageHandler<T extends DBusInterface> {
         String operator,
         Exception exception) {
 
+        // the error name travels on the reply, so there is no need to parse the message
+        if (exception instanceof DBusExecutionException executionException && executionException.getType() != null) {
+            var error = mapSecretServiceError(executionException.getType(), operation, operator, exception);
+            if (error != null) {
+                return error;
+            }
+        }
+
         String message = exception.getMessage();
 
         if (message == null) {
             return new DBusCallException("Unknown DBus error", exception);
         }
 
-        if (message.contains("org.freedesktop.Secret.Error.IsLocked")) {
+        if (message.contains(Static.Errors.IS_LOCKED)) {
             return new SecretIsLockedException(operation, operator, exception);
         }
-        if (message.contains("org.freedesktop.Secret.Error.NoSession")) {
+        if (message.contains(Static.Errors.NO_SESSION)) {
             return new SecretNoSessionException(operation, operator, exception);
         }
-        if (message.contains("org.freedesktop.Secret.Error.NoSuchObject")) {
+        if (message.contains(Static.Errors.NO_SUCH_OBJECT)) {
             return new SecretNoSuchObjectException(operation, operator, exception);
         }
 
         return new DBusCallException("DBus error on calling " + operation + " for " + operator + ": " + message, exception);
     }
 
+    private static DBusCallException mapSecretServiceError(
+        String errorName,
+        String operation,
+        String operator,
+        Exception exception) {
+
+        return switch (errorName) {
+            case Static.Errors.IS_LOCKED -> new SecretIsLockedException(operation, operator, exception);
+            case Static.Errors.NO_SESSION -> new SecretNoSessionException(operation, operator, exception);
+            case Static.Errors.NO_SUCH_OBJECT -> new SecretNoSuchObjectException(operation, operator, exception);
+            default -> null;
+        };
+    }
+
     @FunctionalInterface
     protected interface DBusOperation<R> {
         R call() throws Exception;
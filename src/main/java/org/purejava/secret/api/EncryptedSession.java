@@ -4,6 +4,7 @@ import at.favre.lib.hkdf.HKDF;
 import org.freedesktop.dbus.DBusPath;
 import org.freedesktop.dbus.types.Variant;
 import org.purejava.secret.api.DBusMessageHandler.DBusResult;
+import org.purejava.secret.api.errors.SecretNoSessionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,20 +15,29 @@ import javax.crypto.spec.DHPublicKeySpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import javax.security.auth.DestroyFailedException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
 import java.security.spec.InvalidKeySpecException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.IntStream;
+import java.util.function.Function;
 
 public class EncryptedSession {
     private static final Logger LOG = LoggerFactory.getLogger(EncryptedSession.class);
     public static final int PRIVATE_VALUE_BITS = 1024;
     public static final int AES_BITS = 128;
+    public static final int CHUNK_SIZE = 8192;
     private final Service service;
+    private final KeyPairReservoir reservoir;
     private DBusPath session = null;
     private DHParameterSpec dhParameters = null;
     private KeyPair keypair = null;
@@ -37,11 +47,20 @@ public class EncryptedSession {
     private byte[] yb = null;
 
     public EncryptedSession() {
-        this.service = new Service();
+        this(new Service());
     }
 
     public EncryptedSession(Service service) {
+        this(service, KeyPairReservoir.getDefault());
+    }
+
+    /**
+     * @param service   The service to open the session with.
+     * @param reservoir The reservoir to take the own DH key pair from.
+     */
+    public EncryptedSession(Service service, KeyPairReservoir reservoir) {
         this.service = service;
+        this.reservoir = reservoir;
     }
 
     private static BigInteger fromBinary(byte[] bytes) {
@@ -71,15 +90,11 @@ public class EncryptedSession {
 
     public void initialize() throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
 
-        // create dh parameter specification with prime, generator and bits
-        BigInteger prime = fromBinary(RFC_7296.SecondOakleyGroup.PRIME);
-        BigInteger generator = fromBinary(RFC_7296.SecondOakleyGroup.GENERATOR);
-        dhParameters = new DHParameterSpec(prime, generator, PRIVATE_VALUE_BITS);
+        // dh parameter specification with prime, generator and bits
+        dhParameters = KeyPairReservoir.DH_PARAMETERS;
 
-        // generate DH keys from specification
-        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(Algorithm.DIFFIE_HELLMAN);
-        keyPairGenerator.initialize(dhParameters);
-        keypair = keyPairGenerator.generateKeyPair();
+        // take pre-generated DH keys from the reservoir, each key pair is used only once
+        keypair = reservoir.take();
         publicKey = keypair.getPublic();
         privateKey = keypair.getPrivate();
     }
@@ -104,17 +119,11 @@ public class EncryptedSession {
 
                 Object value = response.a.getValue();
 
-                if (value instanceof ArrayList) {
-                    @SuppressWarnings("unchecked")
-                    List<Byte> list = (ArrayList<Byte>) value;
-                    yb = new byte[list.size()];
-                    IntStream.range(0, list.size()).forEach(i -> yb[i] = list.get(i));
-                } else if (value instanceof byte[]) {
-                    yb = (byte[]) value;
-                } else {
+                try {
+                    yb = Util.toByteArray(value);
+                } catch (IllegalArgumentException e) {
                     throw new IllegalStateException(
-                        "DBus returned unexpected result for openSession method call: "
-                            + value.getClass().getName());
+                        "DBus returned unexpected result for openSession method call: " + e.getMessage(), e);
                 }
 
                 session = response.b;
@@ -164,8 +173,229 @@ public class EncryptedSession {
     public Secret encrypt(byte[] plain, Charset charset) throws NoSuchAlgorithmException, NoSuchPaddingException,
             InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
 
+        return encrypt(plain, ContentType.of(Secret.TEXT_PLAIN, charset));
+    }
+
+    /**
+     * Encrypt content of any type. The session can be used from several threads at once for encrypting.
+     *
+     * @param plain       The plain content.
+     * @param contentType The content type of the plain content.
+     * @return The encrypted secret, or null, if there is no plain content.
+     */
+    public Secret encrypt(byte[] plain, ContentType contentType) throws NoSuchAlgorithmException, NoSuchPaddingException,
+            InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
+
+        if (plain == null) return null;
+
+        Cipher cipher = encryptionCipher();
+
+        return new Secret(session, cipher.getIV(), cipher.doFinal(plain), contentType);
+    }
+
+    /**
+     * Encrypt binary content read from a stream. The plain content is processed in chunks of
+     * {@link #CHUNK_SIZE} bytes and never held in memory as a whole.
+     *
+     * @param plain       The stream to read the plain content from. It is read to its end, but not closed.
+     * @param contentType The content type of the secret, e.g. {@link Secret#APPLICATION_OCTET_STREAM}.
+     * @return The encrypted secret.
+     * @throws IOException Reading from <code>plain</code> failed.
+     */
+    public Secret encrypt(InputStream plain, String contentType) throws IOException, NoSuchAlgorithmException,
+            NoSuchPaddingException, InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException,
+            IllegalBlockSizeException {
+
         if (plain == null) return null;
 
+        return encrypt(Channels.newChannel(plain), contentType);
+    }
+
+    /**
+     * Encrypt binary content read from a channel. The plain content is processed in chunks of
+     * {@link #CHUNK_SIZE} bytes and never held in memory as a whole.
+     *
+     * @param plain       The channel to read the plain content from. It is read to its end, but not closed.
+     * @param contentType The content type of the secret, e.g. {@link Secret#APPLICATION_OCTET_STREAM}.
+     * @return The encrypted secret.
+     * @throws IOException Reading from <code>plain</code> failed.
+     */
+    public Secret encrypt(ReadableByteChannel plain, String contentType) throws IOException, NoSuchAlgorithmException,
+            NoSuchPaddingException, InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException,
+            IllegalBlockSizeException {
+
+        if (plain == null) return null;
+
+        Cipher cipher = encryptionCipher();
+
+        // with a known size, the ciphertext fits exactly and is neither grown nor copied
+        var encrypted = new CiphertextOutput(plain instanceof SeekableByteChannel seekable
+                ? cipher.getOutputSize((int) Math.min(seekable.size() - seekable.position(), Integer.MAX_VALUE - 32))
+                : CHUNK_SIZE);
+
+        var chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        byte[] out = new byte[cipher.getOutputSize(CHUNK_SIZE)];
+        try {
+            while (plain.read(chunk) != -1) {
+                encrypted.write(out, 0, cipher.update(chunk.array(), 0, chunk.position(), out));
+                chunk.clear();
+            }
+            encrypted.write(out, 0, cipher.doFinal(out, 0));
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("Cipher output size was underestimated", e);
+        } finally {
+            Secret.clear(chunk.array());
+        }
+
+        return new Secret(session,
+                cipher.getIV(),
+                encrypted.toByteArrayWithoutCopy(),
+                Util.varIsEmpty(contentType) ? Secret.APPLICATION_OCTET_STREAM : contentType);
+    }
+
+    public char[] decrypt(Secret secret) throws NoSuchPaddingException,
+            NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException,
+            InvalidKeyException,
+            BadPaddingException,
+            IllegalBlockSizeException {
+
+        if (secret == null) return null;
+
+        // decoded as UTF-8 regardless of the content type, as it always was
+        try (SecretBuffer decrypted = decryptToBuffer(secret, StandardCharsets.UTF_8)) {
+            return decrypted.toChars();
+        }
+    }
+
+    /**
+     * Decrypt the secret directly into an off-heap buffer, so that no copy of the plain secret
+     * remains on the heap. The caller must close the returned buffer to wipe the secret.
+     *
+     * @param secret The secret to decrypt.
+     * @return The decrypted secret or null, if <code>secret</code> is null.
+     */
+    public SecretBuffer decryptToBuffer(Secret secret) throws NoSuchPaddingException,
+            NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException,
+            InvalidKeyException,
+            BadPaddingException,
+            IllegalBlockSizeException {
+
+        if (secret == null) return null;
+
+        return decryptToBuffer(secret, secret.getCharsetString());
+    }
+
+    private SecretBuffer decryptToBuffer(Secret secret, Charset charset) throws NoSuchPaddingException,
+            NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException,
+            InvalidKeyException,
+            BadPaddingException,
+            IllegalBlockSizeException {
+
+        Cipher cipher = decryptionCipher(secret);
+
+        byte[] encrypted = secret.getSecretValue();
+        var decrypted = SecretBuffer.allocate(cipher.getOutputSize(encrypted.length), charset);
+        // a heap input and a direct output would make the cipher decrypt into a temporary array nobody wipes,
+        // so decrypt in chunks through a scratch array, that gets wiped
+        byte[] scratch = new byte[cipher.getOutputSize(CHUNK_SIZE) + cipher.getBlockSize()];
+        try {
+            var out = decrypted.writable();
+            for (int offset = 0; offset < encrypted.length; offset += CHUNK_SIZE) {
+                int length = Math.min(CHUNK_SIZE, encrypted.length - offset);
+                out.put(scratch, 0, cipher.update(encrypted, offset, length, scratch));
+            }
+            out.put(scratch, 0, cipher.doFinal(scratch, 0));
+            out.flip();
+            return decrypted;
+        } catch (ShortBufferException e) {
+            decrypted.close();
+            throw new IllegalStateException("Cipher output size was underestimated", e);
+        } catch (BadPaddingException | IllegalBlockSizeException | RuntimeException e) {
+            decrypted.close();
+            throw e;
+        } finally {
+            Secret.clear(scratch);
+        }
+    }
+
+    /**
+     * Decrypt the secret into a stream. The plain content is written in chunks of at most
+     * {@link #CHUNK_SIZE} bytes and never held in memory as a whole, so this suits binary
+     * content of any size.
+     *
+     * @param secret The secret to decrypt.
+     * @param plain  The stream to write the plain content to. It is not closed.
+     * @throws IOException Writing to <code>plain</code> failed.
+     */
+    public void decrypt(Secret secret, OutputStream plain) throws IOException, NoSuchPaddingException,
+            NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException,
+            IllegalBlockSizeException {
+
+        decrypt(secret, Channels.newChannel(plain));
+    }
+
+    /**
+     * Decrypt the secret into a channel. The plain content is written in chunks of at most
+     * {@link #CHUNK_SIZE} bytes and never held in memory as a whole, so this suits binary
+     * content of any size.
+     *
+     * @param secret The secret to decrypt.
+     * @param plain  The channel to write the plain content to. It is not closed.
+     * @throws IOException Writing to <code>plain</code> failed.
+     */
+    public void decrypt(Secret secret, WritableByteChannel plain) throws IOException, NoSuchPaddingException,
+            NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException,
+            IllegalBlockSizeException {
+
+        if (secret == null) return;
+
+        Cipher cipher = decryptionCipher(secret);
+
+        byte[] encrypted = secret.getSecretValue();
+        var chunk = ByteBuffer.allocate(cipher.getOutputSize(CHUNK_SIZE));
+        try {
+            for (int offset = 0; offset < encrypted.length; offset += CHUNK_SIZE) {
+                int length = Math.min(CHUNK_SIZE, encrypted.length - offset);
+                chunk.clear();
+                chunk.limit(cipher.update(encrypted, offset, length, chunk.array()));
+                writeFully(plain, chunk);
+            }
+            chunk.clear();
+            chunk.limit(cipher.doFinal(chunk.array(), 0));
+            writeFully(plain, chunk);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("Cipher output size was underestimated", e);
+        } finally {
+            Secret.clear(chunk.array());
+        }
+    }
+
+    /**
+     * Collects ciphertext and hands out its internal array, when that is filled exactly.
+     */
+    private static class CiphertextOutput extends ByteArrayOutputStream {
+
+        CiphertextOutput(int size) {
+            super(size);
+        }
+
+        byte[] toByteArrayWithoutCopy() {
+            return count == buf.length ? buf : toByteArray();
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private Cipher encryptionCipher() throws NoSuchAlgorithmException, NoSuchPaddingException,
+            InvalidAlgorithmParameterException, InvalidKeyException {
+
         if (service == null) {
             throw new IllegalStateException("Missing session. Call openSession() first.");
         }
@@ -183,20 +413,11 @@ public class EncryptedSession {
         // GCM cannot be used due to interoperability requirements
         Cipher cipher = Cipher.getInstance(Algorithm.AES_CBC_PKCS5); // NOSONAR
         cipher.init(Cipher.ENCRYPT_MODE, sessionKey, ivSpec);
-
-        String contentType = Secret.createContentType(charset);
-
-        return new Secret(session, ivSpec.getIV(), cipher.doFinal(plain), contentType);
+        return cipher;
     }
 
-    public char[] decrypt(Secret secret) throws NoSuchPaddingException,
-            NoSuchAlgorithmException,
-            InvalidAlgorithmParameterException,
-            InvalidKeyException,
-            BadPaddingException,
-            IllegalBlockSizeException {
-
-        if (secret == null) return null;
+    private Cipher decryptionCipher(Secret secret) throws NoSuchAlgorithmException, NoSuchPaddingException,
+            InvalidAlgorithmParameterException, InvalidKeyException {
 
         if (sessionKey == null) {
             throw new IllegalStateException("Missing session key. Call generateSessionKey() first.");
@@ -207,12 +428,42 @@ public class EncryptedSession {
         // GCM cannot be used due to interoperability requirements
         Cipher cipher = Cipher.getInstance(Algorithm.AES_CBC_PKCS5); // NOSONAR
         cipher.init(Cipher.DECRYPT_MODE, sessionKey, ivSpec);
-        final byte[] decrypted = cipher.doFinal(secret.getSecretValue());
-        try {
-            return Secret.toChars(decrypted);
-        } finally {
-            Secret.clear(decrypted);
+        return cipher;
+    }
+
+    /**
+     * Replace the session with a new one, e.g. after the Secret Service daemon got restarted and forgot about it.
+     * Secrets encrypted for the previous session cannot be used afterwards.
+     *
+     * @return True, if the new session was set up.
+     */
+    public boolean renegotiate() {
+        LOG.debug("Renegotiating session {}", session);
+        clear();
+        session = null;
+        sessionKey = null;
+        return setupEncryptedSession();
+    }
+
+    /**
+     * Run a call that uses this session. If it fails with <code>NoSession</code>, because the Secret Service does
+     * not know the session (anymore), the session is renegotiated and the call is run once again, unless the
+     * current {@link RetryPolicy} disables retries. The call must therefore encrypt any secret it passes on
+     * within the function, so that it gets encrypted for the new session.
+     *
+     * @param call The call, given this session.
+     * @param <T>  The type of the result of the call.
+     * @return The result of the call.
+     */
+    public <T> DBusResult<T> withSession(Function<EncryptedSession, DBusResult<T>> call) {
+        var result = call.apply(this);
+        if (result instanceof DBusResult.Failure<T> failure
+                && failure.error() instanceof SecretNoSessionException
+                && RetryPolicy.current().getMaxAttempts() > 1
+                && renegotiate()) {
+            return call.apply(this);
         }
+        return result;
     }
 
     public Service getService() {
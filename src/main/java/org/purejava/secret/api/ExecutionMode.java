@@ -0,0 +1,68 @@
+package org.purejava.secret.api;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Kind of threads blocking DBus calls, prompt waits and signal handler callbacks are run on.
+ * <br>
+ * With {@link #VIRTUAL}, every asynchronous call, prompt wait and signal handler queue gets its own
+ * virtual thread, so that thousands of callers can wait for the Secret Service at the same time without
+ * tying up platform threads. None of the library's own blocking paths hold a monitor, so the virtual
+ * threads do not get pinned to their carrier.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Asynchronous work and signal handler callbacks are run on a shared pool of platform threads,
+     * which is the default.
+     */
+    PLATFORM,
+
+    /**
+     * Asynchronous work and signal handler callbacks are run on virtual threads.
+     */
+    VIRTUAL;
+
+    private static volatile ExecutionMode current = PLATFORM;
+
+    private static class PlatformHolder {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+                Thread.ofPlatform().name("secret-service-worker-", 0).daemon(true).factory());
+    }
+
+    private static class VirtualHolder {
+        private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("secret-service-virtual-", 0).factory());
+    }
+
+    /**
+     * @return The execution mode currently in use.
+     */
+    public static ExecutionMode current() {
+        return current;
+    }
+
+    /**
+     * Switch the execution mode. Work that was already started keeps running on its thread.
+     *
+     * @param mode The execution mode to use from now on.
+     */
+    public static void use(ExecutionMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("ExecutionMode must not be null");
+        }
+        current = mode;
+    }
+
+    /**
+     * @return The executor asynchronous work is run on in this mode.
+     */
+    public Executor executor() {
+        return switch (this) {
+            case PLATFORM -> PlatformHolder.EXECUTOR;
+            case VIRTUAL -> VirtualHolder.EXECUTOR;
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package org.purejava.secret.api;
+
+import org.purejava.secret.api.errors.DBusCallException;
+import org.purejava.secret.api.errors.SecretServiceException;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs failed DBus calls without flooding the log.
+ * <br>
+ * Errors the Secret Service reports as an expected outcome, like <code>IsLocked</code>, are logged at debug level.
+ * Other errors are logged at warn level at most once per interval for the same operation, the number of failures
+ * suppressed meanwhile is added to the next message.
+ */
+class FailureLog {
+
+    static final Duration INTERVAL = Duration.ofSeconds(10);
+    private static final int MAX_KEYS = 256;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private static class Window {
+        private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+        private final AtomicLong suppressed = new AtomicLong();
+    }
+
+    private static class Holder {
+        private static final FailureLog INSTANCE = new FailureLog();
+    }
+
+    static FailureLog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    void log(Logger log, String operation, String operator, DBusCallException error) {
+        if (error instanceof SecretServiceException) {
+            if (log.isDebugEnabled()) {
+                log.debug("DBus error on calling {} for {}: {}", operation, operator, error.getMessage());
+            }
+            return;
+        }
+        if (windows.size() >= MAX_KEYS) {
+            windows.clear();
+        }
+        var window = windows.computeIfAbsent(operation, key -> new Window());
+        long now = System.nanoTime();
+        long nextLogAt = window.nextLogAt.get();
+        if (now - nextLogAt < 0 || !window.nextLogAt.compareAndSet(nextLogAt, now + INTERVAL.toNanos())) {
+            window.suppressed.incrementAndGet();
+            return;
+        }
+        long suppressed = window.suppressed.getAndSet(0);
+        if (suppressed > 0) {
+            log.warn("DBus error on calling {} for {}: {} ({} similar failures suppressed)",
+                    operation, operator, error.getMessage(), suppressed);
+        } else {
+            log.warn("DBus error on calling {} for {}: {}", operation, operator, error.getMessage());
+        }
+    }
+}
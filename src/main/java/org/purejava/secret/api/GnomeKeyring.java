@@ -0,0 +1,162 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.Introspectable;
+import org.freedesktop.dbus.types.Variant;
+import org.purejava.secret.api.errors.DBusCallException;
+import org.purejava.secret.interfaces.InternalUnsupportedGuiltRiddenInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Manage collections of gnome-keyring with their master password, without a prompt. This allows unattended
+ * jobs, e.g. on headless build agents, to unlock a collection in one round trip, where
+ * {@link Service#ensureUnlocked(DBusPath)} would wait for a prompt nobody can answer.
+ * <br>
+ * The master password is transferred encrypted with an {@link EncryptedSession}. Other Secret Service
+ * implementations do not provide the interface, see {@link #isSupported()}.
+ */
+public class GnomeKeyring extends DBusMessageHandler<InternalUnsupportedGuiltRiddenInterface> {
+
+    private static final Logger GNOME_KEYRING_LOG = LoggerFactory.getLogger(GnomeKeyring.class);
+    private static final String GNOME_KEYRING_NOT_AVAILABLE = "gnome-keyring not available on DBus";
+    private static final DBusConnection connection;
+
+    private Introspectable introspectable;
+
+    static {
+        connection = ConnectionManager.getInstance().getConnection();
+    }
+
+    public GnomeKeyring() {
+        this(Static.Service.SECRETS);
+    }
+
+    /**
+     * @param busName The bus name of the daemon, e.g. of a stand-in for testing.
+     */
+    public GnomeKeyring(String busName) {
+        super(busName, Static.DBusPath.SECRETS, InternalUnsupportedGuiltRiddenInterface.class);
+
+        if (connection == null) {
+            return;
+        }
+        try {
+            this.remote = GnomeKeyring.connection.getRemoteObject(busName,
+                    Static.DBusPath.SECRETS,
+                    InternalUnsupportedGuiltRiddenInterface.class);
+
+            this.introspectable = GnomeKeyring.connection.getRemoteObject(busName,
+                    Static.DBusPath.SECRETS,
+                    Introspectable.class);
+
+        } catch (DBusException e) {
+            GNOME_KEYRING_LOG.error(e.toString(), e.getCause());
+        }
+    }
+
+    @Override
+    protected String getUnavailableMessage() {
+        return GNOME_KEYRING_NOT_AVAILABLE;
+    }
+
+    /**
+     * @return True, if the daemon provides the interface to manage collections with their master password.
+     */
+    public boolean isSupported() {
+        var introspection = dBusCall("Introspect", getDBusPath(), () -> introspectable.Introspect());
+        return introspection instanceof DBusResult.Success<String> success
+                && success.value() != null
+                && success.value().contains(Static.Interfaces.GNOME_KEYRING);
+    }
+
+    /**
+     * Unlock a collection with its master password.
+     *
+     * @param collection The collection to unlock.
+     * @param password   The master password of the collection.
+     * @param session    The session to encrypt the password with.
+     * @return True, in case the DBus call succeeded, the DBus error otherwise, e.g. if the password was wrong.
+     */
+    public DBusResult<Boolean> unlockWithMasterPassword(DBusPath collection, CharSequence password, EncryptedSession session) {
+        var result = session.withSession(current -> withMaster(password, current, master ->
+                dBusCall("UnlockWithMasterPassword", collection.getPath(), () -> {
+                    remote.UnlockWithMasterPassword(collection, master);
+                    return true;
+                })));
+        if (result instanceof DBusResult.Success<Boolean>) {
+            LockStateCache.getInstance().update(List.of(collection), false);
+        }
+        return result;
+    }
+
+    /**
+     * Create a collection, that is protected by the given master password.
+     *
+     * @param properties The properties of the new collection, see {@link Collection#createProperties(String)}.
+     * @param password   The master password of the new collection.
+     * @param session    The session to encrypt the password with.
+     * @return The new collection, in case the DBus call succeeded, the DBus error otherwise.
+     */
+    public DBusResult<DBusPath> createWithMasterPassword(Map<String, Variant<?>> properties, CharSequence password, EncryptedSession session) {
+        var result = session.withSession(current -> withMaster(password, current, master ->
+                dBusCall("CreateWithMasterPassword", getDBusPath(),
+                        () -> remote.CreateWithMasterPassword(properties, master))));
+        if (result instanceof DBusResult.Success<DBusPath> success) {
+            NegativeLookupCache.getInstance().objectCreated(success.value().getPath());
+        }
+        return result;
+    }
+
+    /**
+     * Change the master password of a collection, given its current one.
+     *
+     * @param collection The collection.
+     * @param original   The current master password of the collection.
+     * @param password   The new master password of the collection.
+     * @param session    The session to encrypt the passwords with.
+     * @return True, in case the DBus call succeeded, the DBus error otherwise, e.g. if the current password was wrong.
+     */
+    public DBusResult<Boolean> changeWithMasterPassword(DBusPath collection, CharSequence original, CharSequence password,
+                                                        EncryptedSession session) {
+        return session.withSession(current -> withMaster(original, current, old ->
+                withMaster(password, current, master ->
+                        dBusCall("ChangeWithMasterPassword", collection.getPath(), () -> {
+                            remote.ChangeWithMasterPassword(collection, old, master);
+                            return true;
+                        }))));
+    }
+
+    private static <T> DBusResult<T> withMaster(CharSequence password, EncryptedSession session,
+                                                Function<Secret, DBusResult<T>> call) {
+        // there is no encrypted secret for empty content
+        if (password == null || password.isEmpty()) {
+            return new DBusResult.Failure<>(new DBusCallException("The master password must not be empty", null));
+        }
+        Secret master;
+        try {
+            master = session.encrypt(password);
+        } catch (GeneralSecurityException e) {
+            return new DBusResult.Failure<>(new DBusCallException("Failed to encrypt the master password", e));
+        }
+        if (master == null) {
+            return new DBusResult.Failure<>(new DBusCallException("Failed to encrypt the master password", null));
+        }
+        try {
+            return call.apply(master);
+        } finally {
+            master.clear();
+        }
+    }
+
+    public String getDBusPath() {
+        return dbusPath;
+    }
+}
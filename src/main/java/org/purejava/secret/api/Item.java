@@ -51,6 +51,11 @@ public class Item extends DBusMessageHandler<org.purejava.secret.interfaces.Item
         return ITEM_NOT_AVAILABLE;
     }
 
+    @Override
+    protected boolean isNegativelyCached() {
+        return true;
+    }
+
     public static Map<String, Variant<?>> createProperties(String label, Map<String, String> attributes) {
         Map<String, Variant<?>> properties = new HashMap<>();
         properties.put(LABEL, new Variant<>(label));
@@ -81,26 +86,43 @@ public class Item extends DBusMessageHandler<org.purejava.secret.interfaces.Item
             ITEM_LOG.error("Cannot getSecret as required session is missing");
             return null;
         }
-        var secret = dBusCall("GetSecret", getDBusPath(), () -> remote.GetSecret(session));
-        switch (secret) {
-            case DBusResult.Failure<?> failure -> {
-                return null;
-            }
+        return switch (readSecret(session)) {
+            case DBusResult.Failure<Secret> failure -> null;
+            case DBusResult.Success<Secret> success -> success.value();
+        };
+    }
 
-            case DBusResult.Success<Secret> success -> {
-                var contentType = success.value().getContentType();
-                var sessionPath = success.value().getSession();
-                var parameters = success.value().getSecretParameters();
-                var value = success.value().getSecretValue();
-                if (contentType.equals(Secret.TEXT_PLAIN) || contentType.equals(Secret.TEXT_PLAIN_CHARSET_UTF_8)) {
-                    // replace the content-type "text/plain" with default "text/plain; charset=utf8"
-                    return new Secret(sessionPath, parameters, value);
-                } else {
-                    // use given non default content-type
-                    return new Secret(sessionPath, parameters, value, contentType);
-                }
-            }
+    /**
+     * Retrieve the secret for this item. Should the Secret Service not know the session, the session gets
+     * renegotiated and the secret is retrieved once again, see {@link EncryptedSession#withSession}.
+     *
+     * @param session The session to use to encode the secret.
+     * @return secret   &mdash; The secret retrieved, in case the DBus call succeeded, null otherwise.
+     */
+    public Secret getSecret(EncryptedSession session) {
+        if (null == session) {
+            ITEM_LOG.error("Cannot getSecret as required session is missing");
+            return null;
         }
+        return switch (session.withSession(encryptedSession -> readSecret(encryptedSession.getSession()))) {
+            case DBusResult.Failure<Secret> failure -> null;
+            case DBusResult.Success<Secret> success -> success.value();
+        };
+    }
+
+    private DBusResult<Secret> readSecret(DBusPath session) {
+        var secret = dBusCall("GetSecret", getDBusPath(), () -> remote.GetSecret(session));
+        if (!(secret instanceof DBusResult.Success<Secret> success)
+                || !Secret.TEXT_PLAIN.equals(success.value().getContentType())) {
+            // the content-type has already been parsed into its canonical form on unmarshalling
+            return secret;
+        }
+        var received = success.value();
+        // replace the content-type "text/plain" with default "text/plain; charset=utf8"
+        return new DBusResult.Success<>(new Secret(received.getSession(),
+                received.getSecretParameters(),
+                received.getSecretValue(),
+                ContentType.TEXT_PLAIN_UTF_8));
     }
 
     /**
@@ -188,6 +210,67 @@ public class Item extends DBusMessageHandler<org.purejava.secret.interfaces.Item
         );
     }
 
+    /**
+     * Read the label, the attributes and the timestamps of this item. If the backend supports it, they are read
+     * with a single <code>GetAll</code> call, otherwise with one call per property.
+     *
+     * @return The metadata, in case the DBus calls succeeded, the DBus error otherwise.
+     * @see BackendCapabilities#getAll()
+     */
+    @SuppressWarnings("unchecked")
+    public DBusResult<ItemMetadata> getMetadata() {
+        if (BackendDetector.getInstance().capabilities().getAll()) {
+            switch (dBusRead("GetAll", getDBusPath(), null, () -> properties.GetAll(Static.Interfaces.ITEM))) {
+                case DBusResult.Success<Map<String, Variant<?>>> success -> {
+                    var metadata = toMetadata(success.value());
+                    // a backend, that leaves out properties, gets asked for them one by one
+                    if (metadata != null) {
+                        return new DBusResult.Success<>(metadata);
+                    }
+                }
+                case DBusResult.Failure<Map<String, Variant<?>>> failure -> {
+                    return new DBusResult.Failure<>(failure.error());
+                }
+            }
+        }
+        var label = getLabel();
+        if (label instanceof DBusResult.Failure<String> failure) {
+            return new DBusResult.Failure<>(failure.error());
+        }
+        var attributes = getAttributes();
+        if (attributes instanceof DBusResult.Failure<Map<String, String>> failure) {
+            return new DBusResult.Failure<>(failure.error());
+        }
+        var created = getCreated();
+        if (created instanceof DBusResult.Failure<UInt64> failure) {
+            return new DBusResult.Failure<>(failure.error());
+        }
+        var modified = getModified();
+        if (modified instanceof DBusResult.Failure<UInt64> failure) {
+            return new DBusResult.Failure<>(failure.error());
+        }
+        return new DBusResult.Success<>(new ItemMetadata(
+                ((DBusResult.Success<String>) label).value(),
+                ((DBusResult.Success<Map<String, String>>) attributes).value(),
+                ((DBusResult.Success<UInt64>) created).value().longValue(),
+                ((DBusResult.Success<UInt64>) modified).value().longValue()));
+    }
+
+    /**
+     * @return The metadata, or null, if a property is missing or of an unexpected type.
+     */
+    @SuppressWarnings("unchecked")
+    private static ItemMetadata toMetadata(Map<String, Variant<?>> all) {
+        if (all != null
+                && all.get("Label") instanceof Variant<?> label && label.getValue() instanceof String value
+                && all.get("Attributes") instanceof Variant<?> attributes && attributes.getValue() instanceof Map<?, ?> map
+                && all.get("Created") instanceof Variant<?> created && created.getValue() instanceof UInt64 createdAt
+                && all.get("Modified") instanceof Variant<?> modified && modified.getValue() instanceof UInt64 modifiedAt) {
+            return new ItemMetadata(value, (Map<String, String>) map, createdAt.longValue(), modifiedAt.longValue());
+        }
+        return null;
+    }
+
     /**
      * Get the DBusPath of the collection, the item is stored in.
      *
@@ -0,0 +1,14 @@
+package org.purejava.secret.api;
+
+import java.util.Map;
+
+/**
+ * The properties of an item, apart from its secret.
+ *
+ * @param label      The displayable label of the item.
+ * @param attributes The lookup attributes of the item.
+ * @param created    The unix time when the item was created.
+ * @param modified   The unix time when the item was last modified.
+ */
+public record ItemMetadata(String label, Map<String, String> attributes, long created, long modified) {
+}
@@ -0,0 +1,32 @@
+package org.purejava.secret.api;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Description of an item to create with {@link Collection#createItems(java.util.List, EncryptedSession, boolean)}.
+ *
+ * @param label       The label of the item.
+ * @param attributes  The lookup attributes of the item.
+ * @param secret      The plain secret, which gets encrypted on creating the item.
+ * @param contentType The content type of the secret.
+ */
+public record ItemSpec(String label, Map<String, String> attributes, byte[] secret, ContentType contentType) {
+
+    public ItemSpec {
+        Objects.requireNonNull(label, "label must not be null");
+        Objects.requireNonNull(attributes, "attributes must not be null");
+        Objects.requireNonNull(secret, "secret must not be null");
+        Objects.requireNonNull(contentType, "contentType must not be null");
+    }
+
+    /**
+     * @param label      The label of the item.
+     * @param attributes The lookup attributes of the item.
+     * @param secret     The plain text secret, stored as UTF-8.
+     * @return The description of an item with a text secret.
+     */
+    public static ItemSpec of(String label, Map<String, String> attributes, CharSequence secret) {
+        return new ItemSpec(label, attributes, Secret.toBytes(secret), ContentType.TEXT_PLAIN_UTF_8);
+    }
+}
@@ -0,0 +1,204 @@
+package org.purejava.secret.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.spec.DHParameterSpec;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a bounded number of Diffie-Hellman key pairs for the RFC 7296 Second Oakley Group
+ * pre-generated on a background thread, so that opening an encrypted session does not have
+ * to pay for the key generation.
+ * <br>
+ * Every key pair is handed out exactly once. When the reservoir runs dry, a key pair is
+ * generated on the caller's thread and counted as a miss. Should generating in the background fail,
+ * the reservoir stays off and all key pairs are generated on the callers' threads.
+ */
+public class KeyPairReservoir {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeyPairReservoir.class);
+    public static final int DEFAULT_CAPACITY = 4;
+
+    static final DHParameterSpec DH_PARAMETERS = new DHParameterSpec(
+            new BigInteger(1, EncryptedSession.RFC_7296.SecondOakleyGroup.PRIME),
+            new BigInteger(1, EncryptedSession.RFC_7296.SecondOakleyGroup.GENERATOR),
+            EncryptedSession.PRIVATE_VALUE_BITS);
+
+    private final BlockingQueue<KeyPair> pool;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong generationNanos = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private Thread refiller = null;
+    private volatile boolean failed = false;
+
+    private static class Holder {
+        private static final KeyPairReservoir DEFAULT = new KeyPairReservoir(DEFAULT_CAPACITY);
+    }
+
+    public KeyPairReservoir(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.pool = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @return The reservoir shared by all encrypted sessions that do not bring their own.
+     */
+    public static KeyPairReservoir getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    /**
+     * Take a fresh key pair. Starts the background refill on first use.
+     *
+     * @return A key pair that has not been handed out before.
+     * @throws NoSuchAlgorithmException           DH is not supported by the installed providers.
+     * @throws InvalidAlgorithmParameterException The DH parameters are rejected by the installed providers.
+     */
+    public KeyPair take() throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+        start();
+        KeyPair keyPair = pool.poll();
+        if (keyPair != null) {
+            hits.incrementAndGet();
+            return keyPair;
+        }
+        misses.incrementAndGet();
+        return generate();
+    }
+
+    /**
+     * Start the background refill, unless it is already running.
+     */
+    public void start() {
+        if (failed) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (refiller != null || failed) {
+                return;
+            }
+            refiller = Thread.ofPlatform()
+                    .name("secret-service-dh-reservoir")
+                    .daemon(true)
+                    .start(this::refill);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop the background refill and discard the pre-generated key pairs.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            if (refiller != null) {
+                refiller.interrupt();
+                refiller = null;
+            }
+            pool.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                pool.put(generate());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (GeneralSecurityException e) {
+            // the providers will not change their mind, so do not try again on every take()
+            LOG.error("Stopped pre-generating DH key pairs, generating them on demand from now on", e);
+            lock.lock();
+            try {
+                failed = true;
+                if (refiller == Thread.currentThread()) {
+                    refiller = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return True, if generating key pairs in the background failed, so they are generated on the callers'
+     * threads only.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    private KeyPair generate() throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+        long start = System.nanoTime();
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(EncryptedSession.Algorithm.DIFFIE_HELLMAN);
+        keyPairGenerator.initialize(DH_PARAMETERS);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        generationNanos.addAndGet(System.nanoTime() - start);
+        generated.incrementAndGet();
+        return keyPair;
+    }
+
+    /**
+     * @return The number of key pairs currently waiting in the reservoir.
+     */
+    public int getPoolDepth() {
+        return pool.size();
+    }
+
+    /**
+     * @return The maximum number of key pairs kept in the reservoir.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return The number of key pairs generated so far, in the background and on callers' threads.
+     */
+    public long getGenerated() {
+        return generated.get();
+    }
+
+    /**
+     * @return The number of key pairs served from the reservoir.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of key pairs that had to be generated on the caller's thread.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of key pairs that can be generated per second, measured over all generations so far,
+     * or 0 if none has been generated yet.
+     */
+    public double getRefillRate() {
+        long nanos = generationNanos.get();
+        return nanos == 0 ? 0 : generated.get() * 1_000_000_000d / nanos;
+    }
+}
@@ -0,0 +1,273 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBus;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.Variant;
+import org.purejava.secret.api.DBusMessageHandler.DBusResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Table of the lock states of collections and items.
+ * <br>
+ * A lock state is queried once and then kept current from the <code>CollectionChanged</code>,
+ * <code>ItemChanged</code> and <code>PropertiesChanged</code> signals, so that checking whether an object
+ * is locked usually does not need a DBus round trip. The table is reset when the Secret Service daemon
+ * changes, as a new daemon does not know about previous unlocks. As not every backend signals every change
+ * of a lock state, a call failing with <code>IsLocked</code> drops the states of the object and its collection.
+ * <br>
+ * Signal handlers only update the table. Queries, that listeners need to learn about a collection getting
+ * locked, run on the executor of the {@link ExecutionMode}, so they never hold up the dispatch of signals.
+ */
+public class LockStateCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LockStateCache.class);
+    private static final String LOCKED = "Locked";
+
+    private final Map<String, Boolean> states = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // guards changes of the table, so that a query does not record a state that changed while it ran
+    private final ReentrantLock lock = new ReentrantLock();
+    private long generation = 0;
+    // the unique bus name of the Secret Service daemon, the only sender of PropertiesChanged signals that count
+    private volatile String owner;
+
+    /**
+     * Gets notified about changes of lock states.
+     */
+    public interface Listener {
+
+        /**
+         * @param object The collection or item whose lock state changed.
+         * @param locked The new lock state.
+         */
+        void onLockStateChanged(DBusPath object, boolean locked);
+
+        /**
+         * The Secret Service daemon changed, all lock states are unknown.
+         */
+        default void onReset() {
+        }
+    }
+
+    private static class Holder {
+        private static final LockStateCache INSTANCE = new LockStateCache();
+    }
+
+    private LockStateCache() {
+        DBusConnection connection = ConnectionManager.getInstance().getConnection();
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.addSigHandler(org.purejava.secret.interfaces.Service.CollectionChanged.class,
+                    signal -> onCollectionChanged(signal.collection));
+            connection.addSigHandler(org.purejava.secret.interfaces.Service.CollectionDeleted.class,
+                    signal -> forget(signal.collection.getPath(), true));
+            connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemChanged.class,
+                    signal -> forget(signal.item.getPath(), false));
+            connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemDeleted.class,
+                    signal -> forget(signal.item.getPath(), false));
+            connection.addSigHandler(Properties.PropertiesChanged.class, this::onPropertiesChanged);
+            connection.addSigHandler(DBus.NameOwnerChanged.class, signal -> {
+                if (Static.Service.SECRETS.equals(signal.name)) {
+                    owner = Util.varIsEmpty(signal.newOwner) ? null : signal.newOwner;
+                    reset();
+                }
+            });
+        } catch (DBusException e) {
+            LOG.error(e.toString(), e.getCause());
+        }
+        owner = lookupOwner(connection);
+    }
+
+    private static String lookupOwner(DBusConnection connection) {
+        try {
+            var bus = connection.getRemoteObject("org.freedesktop.DBus", "/org/freedesktop/DBus", DBus.class);
+            return bus.GetNameOwner(Static.Service.SECRETS);
+        } catch (Exception e) {
+            // not running yet, NameOwnerChanged tells once it is
+            LOG.debug("Secret Service has no owner on DBus", e);
+            return null;
+        }
+    }
+
+    public static LockStateCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Get the lock state of a collection or an item.
+     *
+     * @param object The collection or item.
+     * @param query  Queries the lock state via DBus, when it is not known yet.
+     * @return The lock state, or the DBus error of the query.
+     */
+    public DBusResult<Boolean> isLocked(DBusPath object, Supplier<DBusResult<Boolean>> query) {
+        Boolean known = states.get(object.getPath());
+        if (known != null) {
+            return new DBusResult.Success<>(known);
+        }
+        long observedGeneration;
+        lock.lock();
+        try {
+            observedGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+        var result = query.get();
+        if (result instanceof DBusResult.Success<Boolean> success && success.value() != null) {
+            lock.lock();
+            try {
+                // skip recording, if the table changed while the query ran, as the answer may be stale
+                if (observedGeneration == generation) {
+                    states.put(object.getPath(), success.value());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forget the lock state of an object, e.g. because a call on it failed with <code>IsLocked</code>. For an
+     * item, the state of its collection is forgotten as well, for a collection, the states of its items.
+     * Listeners learn about the object, and the collection of an item, as locked.
+     *
+     * @param object The collection or item.
+     */
+    public void invalidate(DBusPath object) {
+        String path = object.getPath();
+        String parent = path.substring(0, Math.max(0, path.lastIndexOf('/')));
+        boolean isItem = parent.startsWith(Static.DBusPath.COLLECTION + "/");
+        lock.lock();
+        try {
+            forget(path, true);
+            if (isItem) {
+                states.remove(parent);
+            }
+        } finally {
+            lock.unlock();
+        }
+        // the lock went unnoticed by the signals, so listeners would not learn about it otherwise
+        listeners.forEach(listener -> {
+            listener.onLockStateChanged(object, true);
+            if (isItem) {
+                listener.onLockStateChanged(new DBusPath(parent), true);
+            }
+        });
+    }
+
+    /**
+     * Record the lock state of objects, e.g. after they were unlocked or locked.
+     *
+     * @param objects The collections or items.
+     * @param locked  Their new lock state.
+     */
+    public void update(List<DBusPath> objects, boolean locked) {
+        for (DBusPath object : objects) {
+            update(object.getPath(), locked);
+        }
+    }
+
+    private void update(String path, boolean locked) {
+        Boolean previous;
+        lock.lock();
+        try {
+            generation++;
+            // items of a locked collection are locked as well, those of an unlocked one may be unlocked now
+            forgetCollection(path);
+            previous = states.put(path, locked);
+        } finally {
+            lock.unlock();
+        }
+        if (previous == null || previous != locked) {
+            listeners.forEach(listener -> listener.onLockStateChanged(new DBusPath(path), locked));
+        }
+    }
+
+    /**
+     * Forget all lock states.
+     */
+    public void reset() {
+        LOG.debug("Resetting lock states");
+        lock.lock();
+        try {
+            generation++;
+            states.clear();
+        } finally {
+            lock.unlock();
+        }
+        listeners.forEach(Listener::onReset);
+    }
+
+    private void onCollectionChanged(DBusPath collection) {
+        forget(collection.getPath(), true);
+        if (listeners.isEmpty()) {
+            return;
+        }
+        // listeners rely on learning about a collection getting locked, so query the new state right away,
+        // but off the signal thread, that must not wait for a DBus call
+        ExecutionMode.current().executor().execute(() -> {
+            var state = isLocked(collection, () -> Collection.transientProxy(collection).isLocked());
+            // when in doubt, treat the collection as locked
+            boolean locked = !(state instanceof DBusResult.Success<Boolean> success) || !Boolean.FALSE.equals(success.value());
+            listeners.forEach(listener -> listener.onLockStateChanged(collection, locked));
+        });
+    }
+
+    private void onPropertiesChanged(Properties.PropertiesChanged signal) {
+        if (owner == null || !owner.equals(signal.getSource())) {
+            return;
+        }
+        if (!(Static.Interfaces.COLLECTION.equals(signal.getInterfaceName())
+                || Static.Interfaces.ITEM.equals(signal.getInterfaceName()))) {
+            return;
+        }
+        Variant<?> locked = signal.getPropertiesChanged().get(LOCKED);
+        if (locked != null && locked.getValue() instanceof Boolean value) {
+            update(signal.getPath(), value);
+        }
+    }
+
+    /**
+     * @param path        The path of a collection or an item.
+     * @param withContent Whether to forget the items as well, should the path be the one of a collection.
+     */
+    private void forget(String path, boolean withContent) {
+        lock.lock();
+        try {
+            generation++;
+            if (withContent) {
+                forgetCollection(path);
+            }
+            states.remove(path);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forgetCollection(String collection) {
+        String prefix = collection + "/";
+        states.keySet().removeIf(path -> path.startsWith(prefix));
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,161 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived memory of lookups that came back empty: item and collection paths that do not exist
+ * and attribute searches without results.
+ * <br>
+ * Clients that probe for the same missing object over and over again are answered locally for the
+ * time to live, instead of going to the Secret Service each time. Entries are dropped as soon as
+ * an <code>ItemCreated</code> or <code>CollectionCreated</code> signal could make them wrong.
+ */
+public class NegativeLookupCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NegativeLookupCache.class);
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(2);
+    static final int MAX_ENTRIES = 1024;
+
+    private final Map<String, Long> missingObjects = new ConcurrentHashMap<>();
+    private final Map<SearchKey, Long> emptySearches = new ConcurrentHashMap<>();
+    private volatile long ttlNanos = DEFAULT_TTL.toNanos();
+
+    private record SearchKey(String scope, Map<String, String> attributes) {}
+
+    private static class Holder {
+        private static final NegativeLookupCache INSTANCE = new NegativeLookupCache();
+    }
+
+    private NegativeLookupCache() {
+        DBusConnection connection = ConnectionManager.getInstance().getConnection();
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemCreated.class,
+                    signal -> objectCreated(signal.item.getPath()));
+            // changed attributes may make an item match a search
+            connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemChanged.class,
+                    signal -> emptySearches.clear());
+            connection.addSigHandler(org.purejava.secret.interfaces.Service.CollectionCreated.class,
+                    signal -> objectCreated(signal.collection.getPath()));
+            connection.addSigHandler(DBus.NameOwnerChanged.class, signal -> {
+                if (Static.Service.SECRETS.equals(signal.name)) {
+                    clear();
+                }
+            });
+        } catch (DBusException e) {
+            LOG.error(e.toString(), e.getCause());
+        }
+    }
+
+    public static NegativeLookupCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Set how long an empty lookup is remembered. A duration of zero disables the cache.
+     *
+     * @param ttl The time to live.
+     */
+    public void setTtl(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        if (ttlNanos <= 0) {
+            clear();
+        }
+    }
+
+    public Duration getTtl() {
+        return Duration.ofNanos(ttlNanos);
+    }
+
+    /**
+     * @param path The path of an item or collection.
+     * @return True, when the object was recently found not to exist.
+     */
+    public boolean isMissing(String path) {
+        return isValid(missingObjects, path);
+    }
+
+    /**
+     * Remember that an item or collection does not exist.
+     *
+     * @param path The path of the item or collection.
+     */
+    public void recordMissing(String path) {
+        record(missingObjects, path);
+    }
+
+    /**
+     * @param scope      The path of the object that was searched, i.e. the service or a collection.
+     * @param attributes The attributes searched for.
+     * @return True, when the same search recently found nothing.
+     */
+    public boolean isKnownEmpty(String scope, Map<String, String> attributes) {
+        return attributes != null && isValid(emptySearches, new SearchKey(scope, attributes));
+    }
+
+    /**
+     * Remember that a search found nothing.
+     *
+     * @param scope      The path of the object that was searched, i.e. the service or a collection.
+     * @param attributes The attributes searched for.
+     */
+    public void recordEmpty(String scope, Map<String, String> attributes) {
+        if (attributes == null || attributes.containsKey(null) || attributes.containsValue(null)) {
+            return;
+        }
+        record(emptySearches, new SearchKey(scope, Map.copyOf(attributes)));
+    }
+
+    /**
+     * Forget what is known about an object and all searches, as the object was just created.
+     *
+     * @param path The path of the created item or collection.
+     */
+    public void objectCreated(String path) {
+        String prefix = path + "/";
+        missingObjects.keySet().removeIf(missing -> missing.equals(path) || missing.startsWith(prefix));
+        emptySearches.clear();
+    }
+
+    /**
+     * Forget all empty lookups.
+     */
+    public void clear() {
+        missingObjects.clear();
+        emptySearches.clear();
+    }
+
+    private <K> boolean isValid(Map<K, Long> entries, K key) {
+        Long expiresAt = entries.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiresAt >= 0) {
+            entries.remove(key, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    private <K> void record(Map<K, Long> entries, K key) {
+        long ttl = ttlNanos;
+        if (ttl <= 0) {
+            return;
+        }
+        if (entries.size() >= MAX_ENTRIES) {
+            // rather start over than let misbehaving clients grow the cache without limit
+            entries.clear();
+        }
+        entries.put(key, System.nanoTime() + ttl);
+    }
+}
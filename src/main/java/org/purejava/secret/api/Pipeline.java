@@ -0,0 +1,46 @@
+package org.purejava.secret.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Runs blocking DBus calls for many inputs with a bounded number of them in flight, so that the Secret Service
+ * always has the next call at hand, without flooding it.
+ */
+final class Pipeline {
+
+    private Pipeline() {
+        // prevent instantiation
+    }
+
+    /**
+     * @param inputs  The inputs to run the call for.
+     * @param depth   The number of calls in flight at most.
+     * @param call    The call, run on a thread of the current {@link ExecutionMode}.
+     * @param onError Turns an exception thrown by the call into a result.
+     * @param <I>     The type of the inputs.
+     * @param <R>     The type of the results.
+     * @return The results, in the order of the inputs.
+     */
+    static <I, R> List<R> map(List<I> inputs, int depth, Function<I, R> call, Function<Throwable, R> onError) {
+        var window = new Semaphore(depth);
+        List<CompletableFuture<R>> calls = new ArrayList<>(inputs.size());
+        for (I input : inputs) {
+            window.acquireUninterruptibly();
+            calls.add(CompletableFuture
+                    .supplyAsync(() -> call.apply(input), ExecutionMode.current().executor())
+                    .handle((result, error) -> {
+                        window.release();
+                        return error != null ? onError.apply(error) : result;
+                    }));
+        }
+        List<R> results = new ArrayList<>(inputs.size());
+        for (var pending : calls) {
+            results.add(pending.join());
+        }
+        return results;
+    }
+}
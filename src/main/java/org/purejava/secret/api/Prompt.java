@@ -3,12 +3,19 @@ package org.purejava.secret.api;
 import org.freedesktop.dbus.DBusPath;
 import org.freedesktop.dbus.connections.impl.DBusConnection;
 import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+import org.freedesktop.dbus.types.Variant;
 import org.purejava.secret.api.handlers.CompletedHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class Prompt extends DBusMessageHandler<org.purejava.secret.interfaces.Prompt> {
 
@@ -16,8 +23,10 @@ public class Prompt extends DBusMessageHandler<org.purejava.secret.interfaces.Pr
     private static final String PROMPT_NOT_AVAILABLE = "Prompt not available on DBus";
     private static final DBusConnection connection;
 
-    private final List<CompletedHandler> completedHandlers = new CopyOnWriteArrayList<>();
+    private final List<SignalDispatcher.Subscription<org.purejava.secret.interfaces.Prompt.Completed>> completedHandlers =
+            new CopyOnWriteArrayList<>();
     private final DBusPath path;
+    private final DBusSigHandler<org.purejava.secret.interfaces.Prompt.Completed> onCompleted = this::notifyOnCompleted;
 
     static {
         connection = ConnectionManager.getInstance().getConnection();
@@ -33,7 +42,7 @@ public class Prompt extends DBusMessageHandler<org.purejava.secret.interfaces.Pr
                     path.getPath(),
                     org.purejava.secret.interfaces.Prompt.class);
 
-            Prompt.connection.addSigHandler(org.purejava.secret.interfaces.Prompt.Completed.class, this::notifyOnCompleted);
+            Prompt.connection.addSigHandler(org.purejava.secret.interfaces.Prompt.Completed.class, onCompleted);
 
         } catch (DBusException e) {
             PROMPT_LOG.error(e.toString(), e.getCause());
@@ -61,6 +70,60 @@ public class Prompt extends DBusMessageHandler<org.purejava.secret.interfaces.Pr
         });
     }
 
+    /**
+     * Perform the prompt without waiting for it. No thread is blocked while the user deals with the prompt,
+     * the returned future gets completed from the <code>Completed</code> signal.
+     *
+     * @param window_id Platform specific window handle to use for showing the prompt.
+     * @return Whether the prompt was dismissed and the result of the prompt. The future completes
+     * exceptionally, if the prompt could not be performed.
+     */
+    public CompletableFuture<Pair<Boolean, Variant<?>>> promptAsync(String window_id) {
+        var completed = new CompletableFuture<Pair<Boolean, Variant<?>>>();
+        CompletedHandler handler = (dismissed, result) -> completed.complete(new Pair<>(dismissed, result));
+        addCompletedHandler(handler);
+        completed.whenComplete((result, error) -> {
+            removeCompletedHandler(handler);
+            close();
+        });
+        if (Util.varIsEmpty(window_id)) {
+            completed.completeExceptionally(new IllegalArgumentException("Cannot prompt as required window_id is missing"));
+            return completed;
+        }
+        var call = dBusCall("Prompt", getDBusPath(), () -> {
+            remote.Prompt(window_id);
+            return null;
+        });
+        if (call instanceof DBusResult.Failure<Object> failure) {
+            completed.completeExceptionally(failure.error());
+        }
+        return completed;
+    }
+
+    /**
+     * Perform the prompt and wait for it at most the given time. A prompt, that is not completed in time or whose
+     * caller got interrupted meanwhile, is dismissed, as nobody waits for its answer anymore.
+     *
+     * @param window_id Platform specific window handle to use for showing the prompt.
+     * @param timeout   How long to wait for the user to answer the prompt.
+     * @return Whether the prompt was dismissed and the result of the prompt.
+     * @throws InterruptedException The caller got interrupted while waiting.
+     * @throws ExecutionException   The prompt could not be performed.
+     * @throws TimeoutException     The prompt was not answered in time.
+     */
+    public Pair<Boolean, Variant<?>> prompt(String window_id, Duration timeout)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        var completed = promptAsync(window_id);
+        try {
+            return completed.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException | TimeoutException e) {
+            dismiss();
+            // completing the future stops listening for the Completed signal
+            completed.cancel(false);
+            throw e;
+        }
+    }
+
     /**
      * Dismiss the prompt.
      */
@@ -71,6 +134,17 @@ public class Prompt extends DBusMessageHandler<org.purejava.secret.interfaces.Pr
         });
     }
 
+    /**
+     * Dismiss a prompt, that is not going to be performed, so it does not linger in the Secret Service.
+     *
+     * @param path The path of the prompt.
+     */
+    static void dismiss(DBusPath path) {
+        var prompt = new Prompt(path);
+        prompt.dismiss();
+        prompt.close();
+    }
+
     /**
      * @return The DBusPath of the prompt.
      */
@@ -78,15 +152,52 @@ public class Prompt extends DBusMessageHandler<org.purejava.secret.interfaces.Pr
         return path.getPath();
     }
 
+    /**
+     * Stop listening for the <code>Completed</code> signal of this prompt. Prompts are used once, so this is
+     * done as soon as a prompt performed via {@link #promptAsync(String)} completed.
+     */
+    public void close() {
+        try {
+            Prompt.connection.removeSigHandler(org.purejava.secret.interfaces.Prompt.Completed.class, onCompleted);
+        } catch (DBusException e) {
+            PROMPT_LOG.error(e.toString(), e.getCause());
+        }
+    }
+
     private void notifyOnCompleted(org.purejava.secret.interfaces.Prompt.Completed signal) {
-        completedHandlers.forEach(handler -> handler.onCompleted(signal.dismissed, signal.result));
+        // the signal handler gets the Completed signals of all prompts
+        if (!path.getPath().equals(signal.getPath())) {
+            return;
+        }
+        completedHandlers.forEach(subscription -> subscription.offer(signal));
     }
 
     public void addCompletedHandler(CompletedHandler handler) {
-        completedHandlers.add(handler);
+        subscribeCompleted(handler);
+    }
+
+    /**
+     * Register a handler, which gets the signal through a queue of its own.
+     *
+     * @param handler The handler.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<org.purejava.secret.interfaces.Prompt.Completed> subscribeCompleted(
+            CompletedHandler handler) {
+        // a prompt completes once, so its queue never overflows
+        var subscription = SignalDispatcher.getDefault().<org.purejava.secret.interfaces.Prompt.Completed>subscribe(
+                handler, signal -> handler.onCompleted(signal.dismissed, signal.result));
+        completedHandlers.add(subscription);
+        return subscription;
     }
 
     public void removeCompletedHandler(CompletedHandler handler) {
-        completedHandlers.remove(handler);
+        completedHandlers.removeIf(subscription -> {
+            if (subscription.isFor(handler)) {
+                subscription.close();
+                return true;
+            }
+            return false;
+        });
     }
 }
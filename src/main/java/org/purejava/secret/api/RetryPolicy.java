@@ -0,0 +1,151 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.exceptions.NotConnected;
+import org.purejava.secret.api.errors.DBusCallException;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed DBus call is tried again, and when.
+ * <br>
+ * A call is retried only if it failed for a transient reason, like a lost connection or a Secret Service daemon
+ * that did not reply in time, and only if repeating it cannot do any harm. Reads and writes that set a value are
+ * repeated, calls that create something, such as <code>CreateItem</code> without <code>replace</code>, are not.
+ * The wait before the next attempt grows exponentially and is jittered, so that many clients do not hit a
+ * recovering daemon at the same time.
+ * <br>
+ * By default, every call is tried once, as it always was. Retries are switched on with {@link #use(RetryPolicy)},
+ * e.g. <code>RetryPolicy.use(RetryPolicy.DEFAULT)</code>.
+ * <br>
+ * A <code>NoSession</code> error is not transient by itself, as the secret needs to be encrypted again for a new
+ * session, see {@link EncryptedSession#withSession(java.util.function.Function)}.
+ */
+public class RetryPolicy {
+
+    /**
+     * Every call is tried once.
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+    /**
+     * Transient failures of idempotent calls are tried up to three times, with a backoff of up to one second.
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, Duration.ofMillis(50), Duration.ofSeconds(1));
+
+    private static final Set<String> IDEMPOTENT_OPERATIONS = Set.of(
+            "SearchItems",
+            "GetAll",
+            "GetSecret",
+            "GetSecrets",
+            "ReadAlias",
+            "SetAlias",
+            "SetSecret",
+            "Lock",
+            "Unlock"
+    );
+
+    private static final Set<String> TRANSIENT_ERRORS = Set.of(
+            "org.freedesktop.DBus.Error.NoReply",
+            "org.freedesktop.DBus.Error.Timeout",
+            "org.freedesktop.DBus.Error.TimedOut",
+            "org.freedesktop.DBus.Error.Disconnected",
+            "org.freedesktop.DBus.Error.ServiceUnknown",
+            "org.freedesktop.DBus.Error.NameHasNoOwner",
+            "org.freedesktop.DBus.Error.LimitsExceeded"
+    );
+
+    private static volatile RetryPolicy current = NONE;
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    /**
+     * @param maxAttempts    How often a call is tried at most, including the first attempt.
+     * @param initialBackoff The longest wait before the second attempt.
+     * @param maxBackoff     The longest wait before any attempt.
+     */
+    public RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * @return The retry policy DBus calls use, {@link #NONE} unless set otherwise.
+     */
+    public static RetryPolicy current() {
+        return current;
+    }
+
+    /**
+     * @param policy The retry policy DBus calls use from now on, e.g. {@link #DEFAULT}.
+     */
+    public static void use(RetryPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("RetryPolicy must not be null");
+        }
+        current = policy;
+    }
+
+    /**
+     * @param operation The name of a DBus operation, as passed to <code>dBusCall</code>.
+     * @return True, if the operation can be repeated without changing its outcome.
+     */
+    public static boolean isIdempotent(String operation) {
+        return operation.startsWith("Get(") || operation.startsWith("Set(") || IDEMPOTENT_OPERATIONS.contains(operation);
+    }
+
+    /**
+     * @param error A mapped DBus error.
+     * @return True, if the call might succeed when tried again.
+     */
+    public static boolean isTransient(DBusCallException error) {
+        return error.getCause() instanceof DBusExecutionException e
+                && (e instanceof NotConnected || TRANSIENT_ERRORS.contains(e.getType()));
+    }
+
+    /**
+     * @param attempt    The number of the attempt that just failed, starting at 1.
+     * @param idempotent Whether the call can be repeated without changing its outcome.
+     * @param error      The error the attempt failed with.
+     * @return True, if the call should be tried again.
+     */
+    public boolean shouldRetry(int attempt, boolean idempotent, DBusCallException error) {
+        return attempt < maxAttempts && idempotent && isTransient(error);
+    }
+
+    /**
+     * @param attempt The number of the attempt that just failed, starting at 1.
+     * @return How long to wait before the next attempt: a random time up to the exponentially growing backoff.
+     */
+    public Duration backoff(int attempt) {
+        int doublings = attempt - 1;
+        long bound = maxBackoff.toNanos();
+        if (doublings < Long.SIZE - 1 && initialBackoff.toNanos() <= (bound >> doublings)) {
+            bound = initialBackoff.toNanos() << doublings;
+        }
+        if (bound <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+}
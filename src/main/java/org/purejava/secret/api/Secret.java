@@ -9,7 +9,6 @@ import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
 
 import static java.util.Objects.requireNonNull;
@@ -25,85 +24,44 @@ public final class Secret extends Struct {
     @Position(3)
     private final String contentType;
 
-    private String mimeType = null;
-    private Charset charset = null;
+    private final ContentType type;
 
     // The specification defines the default content_type differently with "text/plain; charset=utf8"
     // see: https://standards.freedesktop.org/secret-service/0.2/ch14.html
     public static final String TEXT_PLAIN_CHARSET_UTF_8 = "text/plain; charset=utf-8";
     public static final String TEXT_PLAIN = "text/plain";
-    private static final String CHARSET_STRING = "charset=";
+    public static final String APPLICATION_OCTET_STREAM = "application/octet-stream";
 
     public Secret(DBusPath session, byte[] value) {
-        this.session = requireNonNull(session);
-        this.parameters = "".getBytes();
-        this.value = value;
-        this.contentType = TEXT_PLAIN_CHARSET_UTF_8;
-        this.mimeType = TEXT_PLAIN;
-        this.charset = StandardCharsets.UTF_8;
+        this(session, "".getBytes(), value, ContentType.TEXT_PLAIN_UTF_8);
     }
 
     public Secret(DBusPath session, byte[] parameters, byte[] value) {
-        this.session = requireNonNull(session);
-        this.parameters = Objects.requireNonNullElseGet(parameters, ""::getBytes);
-        this.value = value;
-        this.contentType = TEXT_PLAIN_CHARSET_UTF_8;
-        this.mimeType = TEXT_PLAIN;
-        this.charset = StandardCharsets.UTF_8;
+        this(session, parameters, value, ContentType.TEXT_PLAIN_UTF_8);
     }
 
     public Secret(DBusPath session, byte[] parameters, byte[] value, String contentType) {
-        this.session = requireNonNull(session);
-        this.parameters = Objects.requireNonNullElseGet(parameters, ""::getBytes);
-        this.value = value;
-        if (contentType == null || contentType.isEmpty()) {
-            this.contentType = TEXT_PLAIN_CHARSET_UTF_8;
-            this.mimeType = TEXT_PLAIN;
-            this.charset = StandardCharsets.UTF_8;
-        } else {
-            parseContentType(contentType);
-            if (charset == null) {
-                this.contentType = mimeType;
-            } else {
-                this.contentType = createContentType(mimeType, charset);
-            }
-        }
+        this(session, parameters, value, ContentType.parse(contentType));
     }
 
     public Secret(DBusPath session, byte[] parameters, byte[] value, Charset charset) {
+        this(session, parameters, value, ContentType.of(TEXT_PLAIN, charset));
+    }
+
+    public Secret(DBusPath session, byte[] parameters, byte[] value, ContentType contentType) {
         this.session = requireNonNull(session);
         this.parameters = Objects.requireNonNullElseGet(parameters, ""::getBytes);
         this.value = value;
-        this.contentType = createContentType(charset);
-        parseContentType(this.contentType);
-    }
-
-    private void parseContentType(String contentType) {
-        String pattern = "[\\s\\\"\\;\\,]";
-        List<String> split = Arrays.asList(contentType.split(pattern));
-        List<String> filtered = split.stream().
-                filter(s -> !(s.isEmpty() || s.length() == 1)).
-                toList();
-
-        if (!filtered.isEmpty()) {
-            mimeType = filtered.getFirst();
-        } else {
-            mimeType = TEXT_PLAIN;
-        }
-
-        if (filtered.size() == 2 && filtered.get(1).startsWith(CHARSET_STRING)) {
-            charset = Charset.forName(filtered.get(1).substring(CHARSET_STRING.length()).toUpperCase());
-        } else {
-            charset = null;
-        }
+        this.type = requireNonNull(contentType);
+        this.contentType = contentType.getValue();
     }
 
     public static String createContentType(String mimeType, Charset charset) {
-        return mimeType + "; " + CHARSET_STRING + charset.name().toLowerCase();
+        return ContentType.of(mimeType, charset).getValue();
     }
 
     public static String createContentType(Charset charset) {
-        return TEXT_PLAIN + "; " + CHARSET_STRING + charset.name().toLowerCase();
+        return ContentType.of(TEXT_PLAIN, charset).getValue();
     }
 
     public static byte[] toBytes(CharSequence passphrase) {
@@ -184,16 +142,34 @@ public final class Secret extends Struct {
         return parameters;
     }
 
+    /**
+     * @return A read-only view of the secret value, without copying it.
+     */
+    public ByteBuffer getSecretValueBuffer() {
+        return ByteBuffer.wrap(value).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return A read-only view of the secret parameters, without copying them.
+     */
+    public ByteBuffer getSecretParametersBuffer() {
+        return ByteBuffer.wrap(parameters).asReadOnlyBuffer();
+    }
+
     public String getContentType() {
         return contentType;
     }
 
+    public ContentType getParsedContentType() {
+        return type;
+    }
+
     public String getMimeType() {
-        return mimeType;
+        return type.getMimeType();
     }
 
     public Charset getCharsetString() {
-        return charset;
+        return type.getCharset();
     }
 
 }
@@ -0,0 +1,168 @@
+package org.purejava.secret.api;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Holds decrypted secret material outside the Java heap.
+ * <br>
+ * The content lives in a direct buffer, so the garbage collector neither moves nor copies it.
+ * Calling {@link #close()} overwrites the content with zeros, which makes wiping deterministic
+ * instead of depending on when, or whether, a heap array gets collected.
+ * <br>
+ * A <code>SecretBuffer</code> is not thread-safe and must not be used after it has been closed.
+ */
+public final class SecretBuffer implements AutoCloseable {
+
+    private final ByteBuffer bytes;
+    private final Charset charset;
+    private CharBuffer chars = null;
+    private boolean closed = false;
+
+    private SecretBuffer(int capacity, Charset charset) {
+        this.bytes = ByteBuffer.allocateDirect(capacity);
+        this.charset = charset;
+    }
+
+    /**
+     * Allocate an empty, off-heap buffer.
+     *
+     * @param capacity The maximum number of bytes the buffer can hold.
+     * @param charset  The charset used to decode the content for {@link #asCharSequence()}.
+     * @return The new buffer with its limit set to <code>capacity</code>.
+     */
+    public static SecretBuffer allocate(int capacity, Charset charset) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        return new SecretBuffer(capacity, charset == null ? StandardCharsets.UTF_8 : charset);
+    }
+
+    /**
+     * Copy the remaining bytes of the given buffer into a new, off-heap buffer.
+     * The position of <code>source</code> is not changed.
+     *
+     * @param source  The bytes to copy.
+     * @param charset The charset used to decode the content for {@link #asCharSequence()}.
+     * @return The new buffer.
+     */
+    public static SecretBuffer copyOf(ByteBuffer source, Charset charset) {
+        var buffer = allocate(source.remaining(), charset);
+        buffer.bytes.put(source.duplicate()).flip();
+        return buffer;
+    }
+
+    /**
+     * Grants write access to the underlying buffer, e.g. to decrypt directly into it.
+     * The caller is expected to flip the buffer after writing.
+     *
+     * @return The writable, off-heap buffer.
+     */
+    ByteBuffer writable() {
+        ensureOpen();
+        return bytes;
+    }
+
+    /**
+     * @return A read-only view of the content, from position zero up to the limit.
+     */
+    public ByteBuffer asByteBuffer() {
+        ensureOpen();
+        return bytes.asReadOnlyBuffer().rewind();
+    }
+
+    /**
+     * Decode the content with the buffer's charset. The decoded characters are kept off-heap as well
+     * and get wiped together with the bytes on {@link #close()}. Malformed input is replaced, the same
+     * way {@link Secret#toChars(byte[])} does it.
+     *
+     * @return A read-only view of the decoded content.
+     */
+    public CharSequence asCharSequence() {
+        ensureOpen();
+        if (chars == null) {
+            CharsetDecoder decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            int maxChars = (int) Math.ceil(bytes.limit() * (double) decoder.maxCharsPerByte());
+            var decoded = ByteBuffer.allocateDirect(maxChars * Character.BYTES).asCharBuffer();
+            decoder.decode(bytes.duplicate().rewind(), decoded, true);
+            decoder.flush(decoded);
+            chars = decoded.flip();
+        }
+        return chars.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return The content decoded into a new <code>char[]</code>, which the caller is responsible to clear.
+     */
+    public char[] toChars() {
+        var view = CharBuffer.wrap(asCharSequence());
+        char[] result = new char[view.remaining()];
+        view.get(result);
+        return result;
+    }
+
+    /**
+     * @return A new, independent buffer with the same content, which must be closed separately.
+     */
+    public SecretBuffer copy() {
+        return copyOf(asByteBuffer(), charset);
+    }
+
+    /**
+     * @return The number of bytes held.
+     */
+    public int length() {
+        ensureOpen();
+        return bytes.limit();
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Overwrite the content and the decoded view with zeros. Closing twice has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        clear(bytes);
+        if (chars != null) {
+            clear(chars);
+            chars = null;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("SecretBuffer has already been closed");
+        }
+    }
+
+    private static void clear(ByteBuffer buffer) {
+        buffer.clear();
+        for (int i = 0; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private static void clear(CharBuffer buffer) {
+        buffer.clear();
+        for (int i = 0; i < buffer.capacity(); i++) {
+            buffer.put(i, (char) 0);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Opt-in cache for decrypted secrets, keyed by item path. Items addressed through an alias, such as
+ * <code>/org/freedesktop/secrets/aliases/default/1</code>, are keyed by their path in the collection the alias
+ * points to, which is the path the signals name.
+ * <br>
+ * Entries expire after their time to live, the least recently used entry is evicted when the cache is full,
+ * and evicted secrets are wiped. The cache follows the Secret Service signals: an entry is invalidated on
+ * <code>ItemChanged</code> and <code>ItemDeleted</code>, and all entries of a collection are flushed as soon as
+ * the {@link LockStateCache} learns that the collection got locked. A locked secret is therefore never served
+ * from the cache.
+ * <br>
+ * Secrets handed out by {@link #getSecret} are copies, which the caller must close. {@link #withSecret} lends
+ * a read-only view of the cached secret instead, which spares the copy.
+ */
+public class SecretCache implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SecretCache.class);
+    private static final DBusConnection connection;
+
+    private final int maxEntries;
+    private final Duration defaultTtl;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long generation = 0;
+
+    private final DBusSigHandler<org.purejava.secret.interfaces.Collection.ItemChanged> onItemChanged =
+            signal -> invalidate(signal.item);
+    private final DBusSigHandler<org.purejava.secret.interfaces.Collection.ItemDeleted> onItemDeleted =
+            signal -> invalidate(signal.item);
+    private final LockStateCache.Listener onLockStateChanged = new LockStateCache.Listener() {
+        @Override
+        public void onLockStateChanged(DBusPath object, boolean locked) {
+            if (locked) {
+                LOG.debug("Flushing cached secrets of locked object {}", object.getPath());
+                invalidate(object);
+                invalidateCollection(object);
+            }
+        }
+
+        @Override
+        public void onReset() {
+            clear();
+        }
+    };
+
+    static {
+        connection = ConnectionManager.getInstance().getConnection();
+    }
+
+    /**
+     * A cached secret, that is wiped once it left the cache and no reader uses it anymore. The counters are
+     * guarded by the lock of the cache.
+     */
+    private static final class Entry {
+        private final SecretBuffer secret;
+        private final String collection;
+        private final long expiresAt;
+        private int readers = 0;
+        private boolean retired = false;
+
+        private Entry(SecretBuffer secret, String collection, long expiresAt) {
+            this.secret = secret;
+            this.collection = collection;
+            this.expiresAt = expiresAt;
+        }
+
+        SecretBuffer secret() {
+            return secret;
+        }
+
+        String collection() {
+            return collection;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+
+        void retire() {
+            retired = true;
+            if (readers == 0) {
+                secret.close();
+            }
+        }
+
+        void release() {
+            readers--;
+            if (retired && readers == 0) {
+                secret.close();
+            }
+        }
+    }
+
+    /**
+     * @param maxEntries The maximum number of secrets to keep.
+     * @param defaultTtl How long a secret is kept, unless a different time to live is given on reading it.
+     */
+    public SecretCache(int maxEntries, Duration defaultTtl) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.defaultTtl = defaultTtl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > SecretCache.this.maxEntries) {
+                    eldest.getValue().retire();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        LockStateCache.getInstance().addListener(onLockStateChanged);
+        if (connection == null) {
+            LOG.warn("No DBus connection, cached secrets only expire by time");
+            return;
+        }
+        try {
+            connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemChanged.class, onItemChanged);
+            connection.addSigHandler(org.purejava.secret.interfaces.Collection.ItemDeleted.class, onItemDeleted);
+        } catch (DBusException e) {
+            LOG.error(e.toString(), e.getCause());
+        }
+    }
+
+    /**
+     * Get the decrypted secret of an item, using the default time to live.
+     *
+     * @param item    The item to get the secret for.
+     * @param session The session to read and decrypt the secret with, when it is not cached.
+     * @return A copy of the decrypted secret, which the caller must close, or null, if it could not be read.
+     * @see #withSecret(DBusPath, EncryptedSession, Function)
+     */
+    public SecretBuffer getSecret(DBusPath item, EncryptedSession session) {
+        return getSecret(item, session, defaultTtl);
+    }
+
+    /**
+     * Get the decrypted secret of an item. Every call, cache hits included, allocates a direct buffer for the
+     * copy it returns, which is comparatively expensive. Hot paths better read the secret with
+     * {@link #withSecret(DBusPath, EncryptedSession, Function)}, which does not copy on a hit.
+     *
+     * @param item    The item to get the secret for.
+     * @param session The session to read and decrypt the secret with, when it is not cached.
+     * @param ttl     How long the secret is kept, when it gets read now.
+     * @return A copy of the decrypted secret, which the caller must close, or null, if it could not be read.
+     */
+    public SecretBuffer getSecret(DBusPath item, EncryptedSession session, Duration ttl) {
+        String key = keyOf(item);
+        long observedGeneration;
+        lock.lock();
+        try {
+            var entry = key == null ? null : entries.get(key);
+            if (entry != null) {
+                if (!entry.isExpired(System.nanoTime())) {
+                    hits.incrementAndGet();
+                    return entry.secret().copy();
+                }
+                entries.remove(key);
+                entry.retire();
+            }
+            observedGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        misses.incrementAndGet();
+        var encrypted = new Item(item).getSecret(session);
+        if (encrypted == null) {
+            return null;
+        }
+        SecretBuffer decrypted;
+        try {
+            decrypted = session.decryptToBuffer(encrypted);
+        } catch (GeneralSecurityException e) {
+            LOG.error("Failed to decrypt secret of {}", item.getPath(), e);
+            return null;
+        }
+
+        lock.lock();
+        try {
+            // skip caching, if the secret got invalidated while it was read or its alias could not be resolved
+            if (key != null && observedGeneration == generation) {
+                store(key, decrypted.copy(), ttl);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return decrypted;
+    }
+
+    /**
+     * Read the decrypted secret of an item without copying it, using the default time to live.
+     * <br>
+     * On a cache hit, the reader gets a read-only view of the cached secret itself. Should the secret leave the
+     * cache meanwhile, it is wiped only after the reader returned. The view must not be used after that.
+     *
+     * @param item    The item to get the secret for.
+     * @param session The session to read and decrypt the secret with, when it is not cached.
+     * @param reader  Reads the secret, given a read-only view of it.
+     * @param <R>     The type of the result of the reader.
+     * @return The result of the reader, or null, if the secret could not be read.
+     */
+    public <R> R withSecret(DBusPath item, EncryptedSession session, Function<ByteBuffer, R> reader) {
+        String key = keyOf(item);
+        Entry entry = null;
+        lock.lock();
+        try {
+            var cached = key == null ? null : entries.get(key);
+            if (cached != null && !cached.isExpired(System.nanoTime())) {
+                hits.incrementAndGet();
+                cached.readers++;
+                entry = cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            try (var secret = getSecret(item, session)) {
+                return secret == null ? null : reader.apply(secret.asByteBuffer());
+            }
+        }
+        try {
+            return reader.apply(entry.secret().asByteBuffer());
+        } finally {
+            lock.lock();
+            try {
+                entry.release();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Put a decrypted secret into the cache, e.g. right after it was written to the item.
+     *
+     * @param item   The item the secret belongs to.
+     * @param secret The decrypted secret. The cache keeps a copy, the caller remains responsible for closing it.
+     * @param ttl    How long the secret is kept.
+     */
+    public void put(DBusPath item, SecretBuffer secret, Duration ttl) {
+        String key = keyOf(item);
+        if (key == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            store(key, secret.copy(), ttl);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(String path, SecretBuffer secret, Duration ttl) {
+        String collection = path.substring(0, Math.max(0, path.lastIndexOf('/')));
+        var previous = entries.put(path, new Entry(secret, collection, System.nanoTime() + ttl.toNanos()));
+        if (previous != null) {
+            previous.retire();
+        }
+    }
+
+    /**
+     * @param object The path of an item or a collection.
+     * @return The path with an alias replaced by the collection it points to, or null, if the alias could not be
+     * resolved.
+     */
+    private static String keyOf(DBusPath object) {
+        String path = object.getPath();
+        String aliases = Static.DBusPath.ALIASES + "/";
+        if (!path.startsWith(aliases)) {
+            return path;
+        }
+        int end = path.indexOf('/', aliases.length());
+        String alias = end < 0 ? path.substring(aliases.length()) : path.substring(aliases.length(), end);
+        if (AliasResolver.getInstance().resolve(alias) instanceof DBusMessageHandler.DBusResult.Success<DBusPath> success
+                && !"/".equals(success.value().getPath())) {
+            return end < 0 ? success.value().getPath() : success.value().getPath() + path.substring(end);
+        }
+        return null;
+    }
+
+    /**
+     * Remove and wipe the cached secret of an item.
+     *
+     * @param item The item.
+     */
+    public void invalidate(DBusPath item) {
+        String key = keyOf(item);
+        lock.lock();
+        try {
+            generation++;
+            var entry = key == null ? null : entries.remove(key);
+            if (entry != null) {
+                entry.retire();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove and wipe the cached secrets of all items of a collection.
+     *
+     * @param collection The collection.
+     */
+    public void invalidateCollection(DBusPath collection) {
+        String key = keyOf(collection);
+        lock.lock();
+        try {
+            generation++;
+            var iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                if (entry.collection().equals(key)) {
+                    entry.retire();
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove and wipe all cached secrets.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            generation++;
+            entries.values().forEach(Entry::retire);
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove and wipe all secrets whose time to live has passed. Expired secrets are never served,
+     * calling this wipes them without waiting for the next read.
+     */
+    public void evictExpired() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            var iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                if (entry.isExpired(now)) {
+                    entry.retire();
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Stop following the Secret Service signals and wipe all cached secrets.
+     */
+    @Override
+    public void close() {
+        LockStateCache.getInstance().removeListener(onLockStateChanged);
+        if (connection != null) {
+            try {
+                connection.removeSigHandler(org.purejava.secret.interfaces.Collection.ItemChanged.class, onItemChanged);
+                connection.removeSigHandler(org.purejava.secret.interfaces.Collection.ItemDeleted.class, onItemDeleted);
+            } catch (DBusException e) {
+                LOG.error(e.toString(), e.getCause());
+            }
+        }
+        clear();
+    }
+}
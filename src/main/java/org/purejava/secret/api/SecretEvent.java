@@ -0,0 +1,31 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+
+/**
+ * A change of a collection or an item, as signalled by the Secret Service.
+ *
+ * @param type The kind of change.
+ * @param path The collection or item that changed.
+ */
+public record SecretEvent(Type type, DBusPath path) {
+
+    public enum Type {
+        COLLECTION_CREATED,
+        COLLECTION_CHANGED,
+        COLLECTION_DELETED,
+        ITEM_CREATED,
+        ITEM_CHANGED,
+        ITEM_DELETED
+    }
+
+    /**
+     * @return True, if the event is about an item, false, if it is about a collection.
+     */
+    public boolean isItemEvent() {
+        return switch (type) {
+            case ITEM_CREATED, ITEM_CHANGED, ITEM_DELETED -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package org.purejava.secret.api;
+
+import org.purejava.secret.api.DBusMessageHandler.DBusResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Stream of the {@link SecretEvent}s of a {@link Service} or a {@link Collection}.
+ * <br>
+ * Events are delivered on demand: every subscriber gets a bounded buffer of its own and receives events only as
+ * far as it requested them, on a thread of the current {@link ExecutionMode}. Publishing never blocks the DBus
+ * signal thread. When a subscriber does not keep up and its buffer is full, new events are dropped for that
+ * subscriber and counted, see {@link #getDropped()}.
+ */
+public class SecretEventPublisher implements Flow.Publisher<SecretEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SecretEventPublisher.class);
+
+    private final SubmissionPublisher<SecretEvent> publisher;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param bufferCapacity The number of events buffered per subscriber at most.
+     */
+    SecretEventPublisher(int bufferCapacity) {
+        this.publisher = new SubmissionPublisher<>(ExecutionMode.current().executor(), bufferCapacity);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SecretEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    void publish(SecretEvent event) {
+        if (!publisher.hasSubscribers()) {
+            return;
+        }
+        publisher.offer(event, (subscriber, rejected) -> {
+            dropped.incrementAndGet();
+            LOG.debug("Dropped {} for a subscriber that does not keep up", rejected);
+            return false;
+        });
+    }
+
+    /**
+     * @param predicate The condition events have to meet.
+     * @return The events that meet the condition.
+     */
+    public Flow.Publisher<SecretEvent> filter(Predicate<SecretEvent> predicate) {
+        return filter(this, predicate);
+    }
+
+    /**
+     * @param prefix The start of the path of the objects of interest, e.g. the path of a collection.
+     * @return The events about objects whose path starts with the given prefix.
+     */
+    public Flow.Publisher<SecretEvent> withPathPrefix(String prefix) {
+        return filter(event -> event.path().getPath().startsWith(prefix));
+    }
+
+    /**
+     * Events about items that carry all the given attributes. The attributes are read from the Secret Service on
+     * the thread of the subscriber, so the events of deleted items, whose attributes cannot be read anymore, and
+     * collection events never match.
+     *
+     * @param attributes The attributes the items must have.
+     * @return The events about items with the given attributes.
+     */
+    public Flow.Publisher<SecretEvent> withAttributes(Map<String, String> attributes) {
+        return filter(event -> event.isItemEvent()
+                && new Item(event.path()).getAttributes() instanceof DBusResult.Success<Map<String, String>> success
+                && success.value() != null
+                && success.value().entrySet().containsAll(attributes.entrySet()));
+    }
+
+    /**
+     * @return The number of subscribers.
+     */
+    public int getNumberOfSubscribers() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * @return The number of events dropped, as a subscriber did not keep up.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Pass on the events that meet a condition. Every event that is filtered out is requested anew from
+     * upstream, so the demand of the subscriber is honoured.
+     */
+    static Flow.Publisher<SecretEvent> filter(Flow.Publisher<SecretEvent> upstream, Predicate<SecretEvent> predicate) {
+        return subscriber -> upstream.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscriber.onSubscribe(subscription);
+            }
+
+            @Override
+            public void onNext(SecretEvent event) {
+                boolean matches;
+                try {
+                    matches = predicate.test(event);
+                } catch (RuntimeException e) {
+                    subscription.cancel();
+                    subscriber.onError(e);
+                    return;
+                }
+                if (matches) {
+                    subscriber.onNext(event);
+                } else {
+                    subscription.request(1);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+        });
+    }
+}
@@ -5,26 +5,46 @@ import org.freedesktop.dbus.connections.impl.DBusConnection;
 import org.freedesktop.dbus.exceptions.DBusException;
 import org.freedesktop.dbus.interfaces.Properties;
 import org.freedesktop.dbus.types.Variant;
+import org.purejava.secret.api.errors.DBusCallException;
+import org.purejava.secret.api.handlers.CollectionBatchHandler;
 import org.purejava.secret.api.handlers.CollectionChangedHandler;
 import org.purejava.secret.api.handlers.CollectionCreatedHandler;
 import org.purejava.secret.api.handlers.CollectionDeletedHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.Service> {
 
     private static final Logger SERVICE_LOG = LoggerFactory.getLogger(Service.class);
     private static final String SERVICE_NOT_AVAILABLE = "Secret Service not available on DBus";
+    /**
+     * How long {@link #deleteItems(List)} waits for the user to answer a prompt to delete an item.
+     */
+    public static final Duration DEFAULT_PROMPT_TIMEOUT = Duration.ofMinutes(2);
     private static final DBusConnection connection;
 
-    private final List<CollectionCreatedHandler> collectionCreatedHandlers = new CopyOnWriteArrayList<>();
-    private final List<CollectionChangedHandler> collectionChangedHandlers = new CopyOnWriteArrayList<>();
-    private final List<CollectionDeletedHandler> collectionDeletedHandlers = new CopyOnWriteArrayList<>();
+    private final List<SignalDispatcher.Subscription<DBusPath>> collectionCreatedHandlers = new CopyOnWriteArrayList<>();
+    private final List<SignalDispatcher.Subscription<DBusPath>> collectionChangedHandlers = new CopyOnWriteArrayList<>();
+    private final List<SignalDispatcher.Subscription<DBusPath>> collectionDeletedHandlers = new CopyOnWriteArrayList<>();
+    private final List<SignalCoalescer> collectionBatchHandlers = new CopyOnWriteArrayList<>();
+    private final SecretEventPublisher events = new SecretEventPublisher(Flow.defaultBufferSize());
+
+    private static class Holder {
+        private static final Service SHARED = new Service();
+    }
 
     static {
         connection = ConnectionManager.getInstance().getConnection();
@@ -57,6 +77,14 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
         return SERVICE_NOT_AVAILABLE;
     }
 
+    /**
+     * @return The service the library uses for its own calls, so that it does not register signal handlers
+     * for every call.
+     */
+    static Service shared() {
+        return Holder.SHARED;
+    }
+
     /**
      * Test, whether Secret Service is available on DBus.
      *
@@ -72,7 +100,30 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
      * @return True, when available, false otherwise.
      */
     public boolean hasDefaultCollection() {
-        return !new Collection(new DBusPath(Static.DBusPath.DEFAULT_COLLECTION)).getDBusPath().equals("/");
+        return defaultCollection() instanceof DBusResult.Success<DBusPath> success
+                && !"/".equals(success.value().getPath());
+    }
+
+    /**
+     * Get the default collection. The result is cached by the {@link AliasResolver}.
+     *
+     * @return The default collection or the path '/' if there is none, in case the alias is known or the
+     * DBus call succeeded, the DBus error otherwise.
+     */
+    public DBusResult<DBusPath> defaultCollection() {
+        return AliasResolver.getInstance().defaultCollection();
+    }
+
+    /**
+     * Get the collection with the given alias. The result is cached by the {@link AliasResolver}, use
+     * {@link #readAlias(String)} to ask the Secret Service directly.
+     *
+     * @param name An alias, such as 'default'.
+     * @return The collection or the path '/' if no such collection exists, in case the alias is known or the
+     * DBus call succeeded, the DBus error otherwise.
+     */
+    public DBusResult<DBusPath> resolveAlias(String name) {
+        return AliasResolver.getInstance().resolve(name);
     }
 
     /**
@@ -83,12 +134,12 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
      * @param item The item to be unlocked.
      */
     public void ensureUnlocked(DBusPath item) {
-        var collectionPath = new Item(item).getCollectionPath();
-        var collection = new Collection(collectionPath);
         var containedItem = new Item(item);
+        var collectionPath = containedItem.getCollectionPath();
+        var lockStates = LockStateCache.getInstance();
 
-        var statusCollection = collection.isLocked();
-        var statusItem = containedItem.isLocked();
+        var statusCollection = lockStates.isLocked(collectionPath, () -> Collection.transientProxy(collectionPath).isLocked());
+        var statusItem = lockStates.isLocked(item, containedItem::isLocked);
 
         List<DBusPath> lockable = new ArrayList<>();
 
@@ -126,6 +177,7 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
                     for (DBusPath path : unlocked) {
                         SERVICE_LOG.debug("Object {} was unlocked", path.getPath());
                     }
+                    lockStates.update(unlocked, false);
                 }
             }
 
@@ -139,6 +191,82 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
         }
     }
 
+    /**
+     * Delete many items at once, e.g. to clean up expired tokens.
+     * <br>
+     * Locked collections of the items are unlocked first, all with a single <code>Unlock</code> call and thus at
+     * most one prompt. Then up to {@link Collection#PIPELINE_DEPTH} <code>Delete</code> calls are kept in flight.
+     * Deletions that still require a prompt are prompted for one after the other, once all calls returned.
+     * Each prompt is waited for at most {@link #DEFAULT_PROMPT_TIMEOUT}.
+     *
+     * @param items The items to delete.
+     * @return For each item, in the same order: true, if it was deleted, false, if the prompt to delete it was
+     * dismissed, in case the DBus calls succeeded, the DBus error otherwise.
+     * @see #deleteItems(List, Duration)
+     */
+    public List<DBusResult<Boolean>> deleteItems(List<DBusPath> items) {
+        return deleteItems(items, DEFAULT_PROMPT_TIMEOUT);
+    }
+
+    /**
+     * Delete many items at once, like {@link #deleteItems(List)}, with a limit on how long each prompt is waited for.
+     * A prompt, that is not answered in time, gets dismissed and its item reported as failed.
+     *
+     * @param items         The items to delete.
+     * @param promptTimeout How long to wait for the user to answer a prompt.
+     * @return For each item, in the same order: true, if it was deleted, false, if the prompt to delete it was
+     * dismissed, in case the DBus calls succeeded and the prompt was answered in time, the error otherwise.
+     */
+    public List<DBusResult<Boolean>> deleteItems(List<DBusPath> items, Duration promptTimeout) {
+        unlockCollectionsOf(items, promptTimeout);
+
+        var deletions = Pipeline.<DBusPath, DBusResult<DBusPath>>map(items, Collection.PIPELINE_DEPTH,
+                item -> new Item(item).delete(),
+                error -> new DBusResult.Failure<>(new DBusCallException("Failed to delete item", error)));
+
+        List<DBusResult<Boolean>> results = new ArrayList<>(items.size());
+        for (var deletion : deletions) {
+            results.add(switch (deletion) {
+                case DBusResult.Success<DBusPath> success when "/".equals(success.value().getPath()) ->
+                        new DBusResult.Success<>(true);
+                case DBusResult.Success<DBusPath> success -> deleteWithPrompt(success.value(), promptTimeout);
+                case DBusResult.Failure<DBusPath> failure -> new DBusResult.Failure<>(failure.error());
+            });
+        }
+        return results;
+    }
+
+    private void unlockCollectionsOf(List<DBusPath> items, Duration promptTimeout) {
+        var lockStates = LockStateCache.getInstance();
+        List<DBusPath> locked = items.stream()
+                .map(item -> new Item(item).getCollectionPath())
+                .distinct()
+                .filter(collection -> lockStates.isLocked(collection, () -> Collection.transientProxy(collection).isLocked())
+                        instanceof DBusResult.Success<Boolean> success && Boolean.TRUE.equals(success.value()))
+                .toList();
+        if (locked.isEmpty()) {
+            return;
+        }
+        if (unlock(locked) instanceof DBusResult.Success<Pair<List<DBusPath>, DBusPath>> success
+                && !"/".equals(success.value().b.getPath())) {
+            lockStates.update(Util.promptAndGetResultAsArrayList(success.value().b, promptTimeout), false);
+        }
+    }
+
+    private static DBusResult<Boolean> deleteWithPrompt(DBusPath path, Duration timeout) {
+        try {
+            boolean dismissed = new Prompt(path).prompt("0", timeout).a;
+            return new DBusResult.Success<>(!dismissed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new DBusResult.Failure<>(new DBusCallException("Interrupted while prompting", e));
+        } catch (ExecutionException e) {
+            return new DBusResult.Failure<>(new DBusCallException("Failed to prompt for deleting", e.getCause()));
+        } catch (TimeoutException e) {
+            return new DBusResult.Failure<>(new DBusCallException("Prompt for deleting not answered in time", e));
+        }
+    }
+
     /**
      * Open a unique session for the caller application.
      *
@@ -177,7 +305,11 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
      * the DBus error otherwise.
      */
     public DBusResult<Pair<DBusPath, DBusPath>> createCollection(Map<String, Variant<?>> properties, String alias) {
-        return dBusCall("CreateCollection", getDBusPath(), () -> remote.CreateCollection(properties, alias));
+        var result = dBusCall("CreateCollection", getDBusPath(), () -> remote.CreateCollection(properties, alias));
+        if (result instanceof DBusResult.Success<Pair<DBusPath, DBusPath>> success) {
+            NegativeLookupCache.getInstance().objectCreated(success.value().a.getPath());
+        }
+        return result;
     }
 
     /**
@@ -208,7 +340,84 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
      * the DBus error otherwise.
      */
     public DBusResult<Pair<List<DBusPath>, List<DBusPath>>> searchItems(Map<String, String> attributes) {
-        return dBusCall("SearchItems", getDBusPath(), () -> remote.SearchItems(attributes));
+        var negativeLookups = NegativeLookupCache.getInstance();
+        if (negativeLookups.isKnownEmpty(getDBusPath(), attributes)) {
+            return new DBusResult.Success<>(new Pair<>(new ArrayList<>(), new ArrayList<>()));
+        }
+        var result = dBusRead("SearchItems", getDBusPath(), attributes == null ? null : new HashMap<>(attributes),
+                () -> remote.SearchItems(attributes));
+        if (result instanceof DBusResult.Success<Pair<List<DBusPath>, List<DBusPath>>> success
+            && success.value().a.isEmpty() && success.value().b.isEmpty()) {
+            negativeLookups.recordEmpty(getDBusPath(), attributes);
+        }
+        return result;
+    }
+
+    /**
+     * Search all collections for items matching the lookup attributes, with one search per collection running in
+     * parallel. The items are reported together with the label and the lock state of their collection, as soon
+     * as their collection answered, so a slow or locked collection does not hold up the others.
+     *
+     * @param attributes Attributes to match.
+     * @param timeout    How long to wait for the collections. Collections that did not answer in time are left
+     *                   out of the result.
+     * @param onResult   Called for each collection with matching items, as soon as the collection answered. Calls
+     *                   may happen concurrently.
+     * @return The collections with matching items, once all collections answered or the timeout passed, in case
+     * listing the collections succeeded, the DBus error otherwise.
+     */
+    public CompletableFuture<DBusResult<List<CollectionSearchResult>>> searchAllCollections(Map<String, String> attributes,
+                                                                                             Duration timeout,
+                                                                                             Consumer<CollectionSearchResult> onResult) {
+        var executor = ExecutionMode.current().executor();
+        return CompletableFuture.supplyAsync(this::getCollections, executor).thenCompose(collections -> {
+            if (!(collections instanceof DBusResult.Success<List<DBusPath>> success)) {
+                return CompletableFuture.completedFuture(
+                        new DBusResult.Failure<>(((DBusResult.Failure<List<DBusPath>>) collections).error()));
+            }
+            List<CompletableFuture<CollectionSearchResult>> searches = new ArrayList<>();
+            for (DBusPath path : success.value()) {
+                // a collection that answers after the timeout is not reported at all
+                searches.add(CompletableFuture
+                        .supplyAsync(() -> searchCollection(path, attributes), executor)
+                        .completeOnTimeout(null, timeout.toNanos(), TimeUnit.NANOSECONDS)
+                        .thenApply(result -> {
+                            if (result != null) {
+                                onResult.accept(result);
+                            }
+                            return result;
+                        })
+                        .exceptionally(error -> {
+                            SERVICE_LOG.warn("Searching {} failed", path.getPath(), error);
+                            return null;
+                        }));
+            }
+            return CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new)).thenApply(done -> {
+                List<CollectionSearchResult> results = new ArrayList<>();
+                for (var search : searches) {
+                    var result = search.join();
+                    if (result != null) {
+                        results.add(result);
+                    }
+                }
+                return new DBusResult.Success<>(results);
+            });
+        });
+    }
+
+    /**
+     * @return The matching items of the collection, or null, if there are none or the search failed.
+     */
+    private static CollectionSearchResult searchCollection(DBusPath path, Map<String, String> attributes) {
+        var collection = Collection.transientProxy(path);
+        if (!(collection.searchItems(attributes) instanceof DBusResult.Success<List<DBusPath>> found)
+                || found.value().isEmpty()) {
+            return null;
+        }
+        String label = collection.getLabel() instanceof DBusResult.Success<String> success ? success.value() : null;
+        boolean locked = !(LockStateCache.getInstance().isLocked(path, collection::isLocked)
+                instanceof DBusResult.Success<Boolean> success && Boolean.FALSE.equals(success.value()));
+        return new CollectionSearchResult(path, label, locked, List.copyOf(found.value()));
     }
 
     /**
@@ -228,7 +437,11 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
             SERVICE_LOG.error("Cannot unlock as required objects to unlock are missing");
             return null;
         }
-        return dBusCall("Unlock", getDBusPath(), () -> remote.Unlock(objects));
+        var result = dBusCall("Unlock", getDBusPath(), () -> remote.Unlock(objects));
+        if (result instanceof DBusResult.Success<Pair<List<DBusPath>, DBusPath>> success) {
+            LockStateCache.getInstance().update(success.value().a, false);
+        }
+        return result;
     }
 
     /**
@@ -248,7 +461,11 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
             SERVICE_LOG.error("Cannot lock as required objects to lock are missing");
             return null;
         }
-        return dBusCall("Lock", getDBusPath(), () -> remote.Lock(objects));
+        var result = dBusCall("Lock", getDBusPath(), () -> remote.Lock(objects));
+        if (result instanceof DBusResult.Success<Pair<List<DBusPath>, DBusPath>> success) {
+            LockStateCache.getInstance().update(success.value().a, true);
+        }
+        return result;
     }
 
     /**
@@ -270,6 +487,46 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
         return dBusCall("GetSecrets", getDBusPath(), () -> remote.GetSecrets(items, session));
     }
 
+    /**
+     * Retrieve multiple secrets from different items, in the way the backend handles best: with a single
+     * <code>GetSecrets</code> call, or with up to {@link Collection#PIPELINE_DEPTH} <code>GetSecret</code> calls
+     * in flight. Should the Secret Service not know the session, it gets renegotiated, see
+     * {@link EncryptedSession#withSession}.
+     *
+     * @param items   Items to get secrets for.
+     * @param session The session to use to encode the secrets.
+     * @return secrets     &mdash; Secrets for the items, in case the DBus call succeeded, the DBus error otherwise.
+     * Retrieved one by one, items whose secret could not be retrieved are left out.
+     * @see BackendCapabilities#batchedSecrets()
+     */
+    public DBusResult<Map<DBusPath, Secret>> getSecrets(List<DBusPath> items, EncryptedSession session) {
+        if (BackendDetector.getInstance().capabilities().batchedSecrets()) {
+            return session.withSession(current -> getSecrets(items, current.getSession()));
+        }
+        var secrets = Pipeline.<DBusPath, Secret>map(items, Collection.PIPELINE_DEPTH,
+                item -> new Item(item).getSecret(session),
+                error -> null);
+        Map<DBusPath, Secret> result = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (secrets.get(i) != null) {
+                result.put(items.get(i), secrets.get(i));
+            }
+        }
+        return new DBusResult.Success<>(result);
+    }
+
+    /**
+     * Retrieve multiple secrets from different items without blocking the caller. The DBus call is run on a
+     * thread of the current {@link ExecutionMode}.
+     *
+     * @param items   Items to get secrets for.
+     * @param session The session to use to encode the secrets.
+     * @return secrets     &mdash; Secrets for the items, in case the DBus call succeeded, the DBus error otherwise.
+     */
+    public CompletableFuture<DBusResult<Map<DBusPath, Secret>>> getSecretsAsync(List<DBusPath> items, DBusPath session) {
+        return CompletableFuture.supplyAsync(() -> getSecrets(items, session), ExecutionMode.current().executor());
+    }
+
     /**
      * Get the collection with the given alias.
      *
@@ -282,7 +539,7 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
             SERVICE_LOG.error("Cannot readAlias as required name is missing");
             return null;
         }
-        return dBusCall("ReadAlias", getDBusPath(), () -> remote.ReadAlias(name));
+        return dBusRead("ReadAlias", getDBusPath(), name, () -> remote.ReadAlias(name));
     }
 
     /**
@@ -304,6 +561,7 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
             remote.SetAlias(name, collection);
             return null;
         });
+        AliasResolver.getInstance().invalidate(name);
     }
 
     /**
@@ -320,43 +578,177 @@ public class Service extends DBusMessageHandler<org.purejava.secret.interfaces.S
         );
     }
 
+    /**
+     * @return What the implementation of the Secret Service, that currently owns its bus name, does well.
+     * @see BackendDetector
+     */
+    public BackendCapabilities getBackendCapabilities() {
+        return BackendDetector.getInstance().capabilities();
+    }
+
     public String getDBusPath() {
         return Static.DBusPath.SECRETS;
     }
 
     private void notifyOnCollectionCreated(org.purejava.secret.interfaces.Service.CollectionCreated signal) {
-        collectionCreatedHandlers.forEach(handler -> handler.onCollectionCreated(signal.collection));
+        collectionCreatedHandlers.forEach(subscription -> subscription.offer(signal.collection));
+        collectionBatchHandlers.forEach(coalescer -> coalescer.created(signal.collection));
+        events.publish(new SecretEvent(SecretEvent.Type.COLLECTION_CREATED, signal.collection));
     }
 
     private void notifyOnCollectionChanged(org.purejava.secret.interfaces.Service.CollectionChanged signal) {
-        collectionChangedHandlers.forEach(handler -> handler.onCollectionChanged(signal.collection));
+        collectionChangedHandlers.forEach(subscription -> subscription.offer(signal.collection));
+        collectionBatchHandlers.forEach(coalescer -> coalescer.changed(signal.collection));
+        events.publish(new SecretEvent(SecretEvent.Type.COLLECTION_CHANGED, signal.collection));
     }
 
     private void notifyOnCollectionDeleted(org.purejava.secret.interfaces.Service.CollectionDeleted signal) {
-        collectionDeletedHandlers.forEach(handler -> handler.onCollectionDeleted(signal.collection));
+        collectionDeletedHandlers.forEach(subscription -> subscription.offer(signal.collection));
+        collectionBatchHandlers.forEach(coalescer -> coalescer.deleted(signal.collection));
+        events.publish(new SecretEvent(SecretEvent.Type.COLLECTION_DELETED, signal.collection));
     }
 
     public void addCollectionCreatedHandler(CollectionCreatedHandler handler) {
-        collectionCreatedHandlers.add(handler);
+        subscribeCollectionCreated(handler);
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeCollectionCreated(CollectionCreatedHandler handler) {
+        return subscribeCollectionCreated(handler, SignalDispatcher.getDefault().getPolicy());
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @param policy  What to do with a signal, when the queue of the handler is full.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeCollectionCreated(CollectionCreatedHandler handler, SignalDispatcher.OverflowPolicy policy) {
+        var subscription = SignalDispatcher.getDefault().<DBusPath>subscribe(handler, handler::onCollectionCreated, policy);
+        collectionCreatedHandlers.add(subscription);
+        return subscription;
     }
 
     public void removeCollectionCreatedHandler(CollectionCreatedHandler handler) {
-        collectionCreatedHandlers.remove(handler);
+        collectionCreatedHandlers.removeIf(subscription -> {
+            if (subscription.isFor(handler)) {
+                subscription.close();
+                return true;
+            }
+            return false;
+        });
     }
 
     public void addCollectionChangedHandler(CollectionChangedHandler handler) {
-        collectionChangedHandlers.add(handler);
+        subscribeCollectionChanged(handler);
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeCollectionChanged(CollectionChangedHandler handler) {
+        return subscribeCollectionChanged(handler, SignalDispatcher.getDefault().getPolicy());
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @param policy  What to do with a signal, when the queue of the handler is full.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeCollectionChanged(CollectionChangedHandler handler, SignalDispatcher.OverflowPolicy policy) {
+        var subscription = SignalDispatcher.getDefault().<DBusPath>subscribe(handler, handler::onCollectionChanged, policy);
+        collectionChangedHandlers.add(subscription);
+        return subscription;
     }
 
     public void removeCollectionChangedHandler(CollectionChangedHandler handler) {
-        collectionChangedHandlers.remove(handler);
+        collectionChangedHandlers.removeIf(subscription -> {
+            if (subscription.isFor(handler)) {
+                subscription.close();
+                return true;
+            }
+            return false;
+        });
     }
 
     public void addCollectionDeletedHandler(CollectionDeletedHandler handler) {
-        collectionDeletedHandlers.add(handler);
+        subscribeCollectionDeleted(handler);
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeCollectionDeleted(CollectionDeletedHandler handler) {
+        return subscribeCollectionDeleted(handler, SignalDispatcher.getDefault().getPolicy());
+    }
+
+    /**
+     * Register a handler, which gets its signals through a queue of its own.
+     *
+     * @param handler The handler.
+     * @param policy  What to do with a signal, when the queue of the handler is full.
+     * @return The subscription of the handler, which provides the queue metrics.
+     */
+    public SignalDispatcher.Subscription<DBusPath> subscribeCollectionDeleted(CollectionDeletedHandler handler, SignalDispatcher.OverflowPolicy policy) {
+        var subscription = SignalDispatcher.getDefault().<DBusPath>subscribe(handler, handler::onCollectionDeleted, policy);
+        collectionDeletedHandlers.add(subscription);
+        return subscription;
     }
 
     public void removeCollectionDeletedHandler(CollectionDeletedHandler handler) {
-        collectionDeletedHandlers.remove(handler);
+        collectionDeletedHandlers.removeIf(subscription -> {
+            if (subscription.isFor(handler)) {
+                subscription.close();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * @return The stream of the collection events, delivered on demand of its subscribers.
+     */
+    public SecretEventPublisher events() {
+        return events;
+    }
+
+    /**
+     * Register a handler, which gets the collection signals collected over a window of time as one batch, with
+     * each collection mentioned at most once. This keeps the work of the handler proportional to the number of
+     * distinct changes during signal storms, e.g. caused by bulk imports.
+     *
+     * @param handler The handler.
+     * @param window  How long signals are collected, before they get delivered.
+     * @return The coalescer of the handler, which provides the signal and batch counts.
+     */
+    public SignalCoalescer addCollectionBatchHandler(CollectionBatchHandler handler, Duration window) {
+        var coalescer = new SignalCoalescer(handler, window,
+                batch -> handler.onCollections(batch.created(), batch.changed(), batch.deleted()));
+        collectionBatchHandlers.add(coalescer);
+        return coalescer;
+    }
+
+    public void removeCollectionBatchHandler(CollectionBatchHandler handler) {
+        collectionBatchHandlers.removeIf(coalescer -> {
+            if (coalescer.isFor(handler)) {
+                coalescer.close();
+                return true;
+            }
+            return false;
+        });
     }
 }
@@ -0,0 +1,173 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Collects created, changed and deleted signals for a window of time and delivers them as one batch, with
+ * each object path mentioned at most once.
+ * <br>
+ * The window starts with the first signal after a batch was delivered, so a steady storm of signals still
+ * gets delivered at least once per window. Within a window, the signals of one object are merged: an object
+ * that was created and then changed is reported as created, one that was created and deleted again is not
+ * reported at all, and one that was deleted and created again is reported as changed.
+ * <br>
+ * Batches are handed to the handler through a {@link SignalDispatcher} queue that never drops a batch.
+ */
+public class SignalCoalescer {
+
+    private final Duration window;
+    private final SignalDispatcher.Subscription<Batch> subscription;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong signals = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private Set<DBusPath> created = new LinkedHashSet<>();
+    private Set<DBusPath> changed = new LinkedHashSet<>();
+    private Set<DBusPath> deleted = new LinkedHashSet<>();
+    private boolean scheduled = false;
+    private boolean closed = false;
+
+    /**
+     * The distinct objects that were created, changed and deleted within one window.
+     *
+     * @param created The created objects.
+     * @param changed The changed objects.
+     * @param deleted The deleted objects.
+     */
+    public record Batch(Set<DBusPath> created, Set<DBusPath> changed, Set<DBusPath> deleted) {}
+
+    private static class Holder {
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("secret-service-coalescer").daemon(true).factory());
+    }
+
+    /**
+     * @param handler  The handler the batches are for, used to find the coalescer again on removing the handler.
+     * @param window   How long signals are collected, before they get delivered.
+     * @param delivery Hands a batch to the handler.
+     */
+    public SignalCoalescer(Object handler, Duration window, Consumer<Batch> delivery) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        this.window = window;
+        this.subscription = SignalDispatcher.getDefault().subscribe(handler, delivery, SignalDispatcher.OverflowPolicy.BLOCK);
+    }
+
+    public void created(DBusPath object) {
+        record(() -> {
+            if (deleted.remove(object)) {
+                changed.add(object);
+            } else {
+                created.add(object);
+            }
+        });
+    }
+
+    public void changed(DBusPath object) {
+        record(() -> {
+            if (!created.contains(object)) {
+                changed.add(object);
+            }
+        });
+    }
+
+    public void deleted(DBusPath object) {
+        record(() -> {
+            if (!created.remove(object)) {
+                changed.remove(object);
+                deleted.add(object);
+            }
+        });
+    }
+
+    private void record(Runnable merge) {
+        signals.incrementAndGet();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            merge.run();
+            if (!scheduled) {
+                scheduled = true;
+                Holder.SCHEDULER.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deliver the signals collected so far right away.
+     */
+    public void flush() {
+        Batch batch;
+        lock.lock();
+        try {
+            scheduled = false;
+            if (closed || (created.isEmpty() && changed.isEmpty() && deleted.isEmpty())) {
+                return;
+            }
+            batch = new Batch(Set.copyOf(created), Set.copyOf(changed), Set.copyOf(deleted));
+            created = new LinkedHashSet<>();
+            changed = new LinkedHashSet<>();
+            deleted = new LinkedHashSet<>();
+        } finally {
+            lock.unlock();
+        }
+        batches.incrementAndGet();
+        subscription.offer(batch);
+    }
+
+    /**
+     * @param handler A handler.
+     * @return True, if this coalescer collects the signals for the given handler.
+     */
+    public boolean isFor(Object handler) {
+        return subscription.isFor(handler);
+    }
+
+    /**
+     * Stop collecting signals and discard the ones not delivered yet.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            created.clear();
+            changed.clear();
+            deleted.clear();
+        } finally {
+            lock.unlock();
+        }
+        subscription.close();
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * @return The number of signals received.
+     */
+    public long getSignals() {
+        return signals.get();
+    }
+
+    /**
+     * @return The number of batches delivered.
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+}
@@ -0,0 +1,338 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.messages.DBusSignal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Delivers signals to the handlers registered with {@link Service}, {@link Collection} and {@link Prompt}.
+ * <br>
+ * Every handler gets a bounded queue of its own, which is drained on a thread of the current
+ * {@link ExecutionMode}. A slow handler therefore only delays its own signals, while the DBus signal thread
+ * and all other handlers, including the ones waiting for a prompt to complete, carry on. What happens when
+ * a queue is full is decided by its {@link OverflowPolicy}. The default dispatcher loses no signal, handlers
+ * opt in to a bounded queue by asking for a lossy policy.
+ */
+public class SignalDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SignalDispatcher.class);
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * What to do with a signal, when the queue of a handler is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Let the queue grow beyond its capacity. No signal gets lost and the DBus signal thread never waits,
+         * like with handlers called directly, at the cost of memory while the handler lags behind.
+         * This is the policy of the default dispatcher.
+         */
+        UNBOUNDED,
+        /**
+         * Drop the oldest queued signal to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Drop the new signal, if a signal with the same coalescing key is still queued, e.g. a change of the
+         * same item. Otherwise, drop the oldest queued signal.
+         *
+         * @see #coalescingKey(Object)
+         */
+        COALESCE,
+        /**
+         * Make the DBus signal thread wait until the handler caught up. No signal gets lost, but
+         * all other signals are delayed meanwhile.
+         */
+        BLOCK
+    }
+
+    private static class Holder {
+        private static final SignalDispatcher INSTANCE = new SignalDispatcher(DEFAULT_CAPACITY, OverflowPolicy.UNBOUNDED);
+    }
+
+    /**
+     * @param capacity The number of signals queued per handler at most.
+     * @param policy   The overflow policy handlers get, unless they ask for a different one.
+     */
+    public SignalDispatcher(int capacity, OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * @return The dispatcher used by {@link Service}, {@link Collection} and {@link Prompt}.
+     */
+    public static SignalDispatcher getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Give a handler a queue of its own, using the default overflow policy.
+     *
+     * @param handler  The handler, used to find the subscription again on removing the handler.
+     * @param delivery Hands a signal to the handler.
+     * @param <E>      The type of the signals.
+     * @return The subscription of the handler.
+     */
+    public <E> Subscription<E> subscribe(Object handler, Consumer<E> delivery) {
+        return subscribe(handler, delivery, policy);
+    }
+
+    /**
+     * Give a handler a queue of its own.
+     *
+     * @param handler  The handler, used to find the subscription again on removing the handler.
+     * @param delivery Hands a signal to the handler.
+     * @param policy   What to do with a signal, when the queue of the handler is full.
+     * @param <E>      The type of the signals.
+     * @return The subscription of the handler.
+     */
+    public <E> Subscription<E> subscribe(Object handler, Consumer<E> delivery, OverflowPolicy policy) {
+        return subscribe(handler, delivery, policy, SignalDispatcher::coalescingKey);
+    }
+
+    /**
+     * Give a handler a queue of its own, that coalesces signals by a key of its choice.
+     *
+     * @param handler  The handler, used to find the subscription again on removing the handler.
+     * @param delivery Hands a signal to the handler.
+     * @param policy   What to do with a signal, when the queue of the handler is full.
+     * @param key      The coalescing key of a signal, signals with equal keys are merged by {@link OverflowPolicy#COALESCE}.
+     * @param <E>      The type of the signals.
+     * @return The subscription of the handler.
+     */
+    public <E> Subscription<E> subscribe(Object handler, Consumer<E> delivery, OverflowPolicy policy,
+                                         Function<? super E, ?> key) {
+        return new Subscription<>(handler, delivery, policy, key);
+    }
+
+    /**
+     * The default coalescing key. DBus signals do not compare equal by their content, so they are keyed by
+     * their type and the path of the object that sent them. Other signals, such as the path of an item that
+     * changed, are their own key.
+     *
+     * @param signal A signal.
+     * @return The coalescing key of the signal.
+     */
+    public static Object coalescingKey(Object signal) {
+        return signal instanceof DBusSignal dbusSignal
+                ? List.of(dbusSignal.getClass(), String.valueOf(dbusSignal.getPath()))
+                : signal;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return The number of signals dropped by all handler queues.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return The number of signals merged into a queued signal with the same key by all handler queues.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * The queue of one handler.
+     *
+     * @param <E> The type of the signals.
+     */
+    public final class Subscription<E> {
+
+        private final Object handler;
+        private final Consumer<E> delivery;
+        private final OverflowPolicy policy;
+        private final Function<? super E, ?> key;
+        private final ArrayDeque<E> queue = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong droppedSignals = new AtomicLong();
+        private final AtomicLong coalescedSignals = new AtomicLong();
+        private boolean draining = false;
+        private boolean closed = false;
+
+        private Subscription(Object handler, Consumer<E> delivery, OverflowPolicy policy, Function<? super E, ?> key) {
+            this.handler = handler;
+            this.delivery = delivery;
+            this.policy = policy;
+            this.key = key;
+        }
+
+        /**
+         * Queue a signal for the handler.
+         *
+         * @param signal The signal.
+         */
+        public void offer(E signal) {
+            boolean schedule = false;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (policy != OverflowPolicy.UNBOUNDED && queue.size() >= capacity && !makeRoom(signal)) {
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+                queue.add(signal);
+                if (!draining) {
+                    draining = true;
+                    schedule = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (schedule) {
+                ExecutionMode.current().executor().execute(this::drain);
+            }
+        }
+
+        /**
+         * @return False, if the signal got merged into a queued one.
+         */
+        private boolean makeRoom(E signal) {
+            switch (policy) {
+                case COALESCE:
+                    if (isQueued(key.apply(signal))) {
+                        coalescedSignals.incrementAndGet();
+                        coalesced.incrementAndGet();
+                        return false;
+                    }
+                    // fall through
+                case DROP_OLDEST:
+                    queue.poll();
+                    droppedSignals.incrementAndGet();
+                    dropped.incrementAndGet();
+                    LOG.debug("Signal queue of {} is full, dropped the oldest signal", handler);
+                    return true;
+                case BLOCK:
+                default:
+                    while (queue.size() >= capacity && !closed) {
+                        notFull.awaitUninterruptibly();
+                    }
+                    return true;
+            }
+        }
+
+        private boolean isQueued(Object signalKey) {
+            for (E queued : queue) {
+                if (Objects.equals(signalKey, key.apply(queued))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void drain() {
+            while (true) {
+                E signal;
+                lock.lock();
+                try {
+                    signal = queue.poll();
+                    if (signal == null) {
+                        draining = false;
+                        return;
+                    }
+                    notFull.signal();
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    delivery.accept(signal);
+                } catch (RuntimeException e) {
+                    LOG.error("Signal handler {} failed", handler, e);
+                }
+                delivered.incrementAndGet();
+            }
+        }
+
+        /**
+         * @param handler A handler.
+         * @return True, if this is the queue of the given handler.
+         */
+        public boolean isFor(Object handler) {
+            return this.handler == handler;
+        }
+
+        /**
+         * Stop delivering signals and discard the queued ones.
+         */
+        public void close() {
+            lock.lock();
+            try {
+                closed = true;
+                queue.clear();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public OverflowPolicy getPolicy() {
+            return policy;
+        }
+
+        /**
+         * @return The number of signals waiting for the handler.
+         */
+        public int getQueueDepth() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return The number of signals handed to the handler.
+         */
+        public long getDelivered() {
+            return delivered.get();
+        }
+
+        /**
+         * @return The number of signals dropped, as the queue was full.
+         */
+        public long getDropped() {
+            return droppedSignals.get();
+        }
+
+        /**
+         * @return The number of signals merged into a queued signal with the same key.
+         */
+        public long getCoalesced() {
+            return coalescedSignals.get();
+        }
+    }
+}
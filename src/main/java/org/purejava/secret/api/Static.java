@@ -43,5 +43,17 @@ public class Static {
         public static final String COLLECTION = "org.freedesktop.Secret.Collection";
         public static final String ITEM = "org.freedesktop.Secret.Item";
         public static final String PROMPT = "org.freedesktop.Secret.Prompt";
+        public static final String GNOME_KEYRING = "org.gnome.keyring.InternalUnsupportedGuiltRiddenInterface";
+    }
+
+    public static class Errors {
+
+        private Errors() {
+            // prevent instantiation
+        }
+
+        public static final String IS_LOCKED = "org.freedesktop.Secret.Error.IsLocked";
+        public static final String NO_SESSION = "org.freedesktop.Secret.Error.NoSession";
+        public static final String NO_SUCH_OBJECT = "org.freedesktop.Secret.Error.NoSuchObject";
     }
 }
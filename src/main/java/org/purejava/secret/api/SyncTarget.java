@@ -0,0 +1,26 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+
+/**
+ * Receives the changes {@link CollectionSync} finds in its source collection.
+ */
+public interface SyncTarget {
+
+    /**
+     * An item of the source collection was created or changed.
+     *
+     * @param source The item in the source collection.
+     * @param item   The current state of the item. Its secret is wiped, once the method returned.
+     * @return False, if the change could not be applied and should be tried again on the next pass.
+     */
+    boolean upsert(DBusPath source, ItemSpec item);
+
+    /**
+     * An item of the source collection was deleted.
+     *
+     * @param source The item that was deleted from the source collection.
+     * @return False, if the deletion could not be applied and should be tried again on the next pass.
+     */
+    boolean delete(DBusPath source);
+}
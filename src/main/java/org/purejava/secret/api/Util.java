@@ -3,10 +3,13 @@ package org.purejava.secret.api;
 import org.freedesktop.dbus.DBusPath;
 import org.freedesktop.dbus.types.Variant;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 public class Util {
 
@@ -18,51 +21,79 @@ public class Util {
         return v == null || v.isBlank();
     }
 
+    /**
+     * Turns the unmarshalled value of a DBus <code>ay</code> into a <code>byte[]</code>.
+     * <br>
+     * A <code>byte[]</code> is returned as is, without copying. Other representations are copied
+     * exactly once, without any intermediate boxing.
+     *
+     * @param value The unmarshalled value, e.g. the content of a <code>Variant</code>.
+     * @return The bytes.
+     * @throws IllegalArgumentException when <code>value</code> is no representation of a byte array.
+     */
+    public static byte[] toByteArray(Object value) {
+        return switch (value) {
+            case byte[] bytes -> bytes;
+            case ByteBuffer buffer -> {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.duplicate().get(bytes);
+                yield bytes;
+            }
+            case List<?> list -> {
+                byte[] bytes = new byte[list.size()];
+                int i = 0;
+                for (Object element : list) {
+                    if (!(element instanceof Byte b)) {
+                        throw new IllegalArgumentException("Not a byte array, contains: " + element);
+                    }
+                    bytes[i++] = b;
+                }
+                yield bytes;
+            }
+            case null -> throw new IllegalArgumentException("Not a byte array: null");
+            default -> throw new IllegalArgumentException("Not a byte array: " + value.getClass().getName());
+        };
+    }
+
     /**
      * Shows the prompt for the given path and waits, until the prompt finished or was dismissed.
+     * <br>
+     * Waiting does not hold any monitor, so a virtual thread calling this method does not get pinned to its
+     * carrier thread, see {@link ExecutionMode#VIRTUAL}.
      *
      * @param path The <code>DBusPath</code> of the prompt to show.
      * @return The <code>DBusPath</code> of the object the prompt was executed for, e.g. the path of the collection.
      * When something went wrong on executing the prompt or when the prompt was dismissed, "/" is returned.
      */
     public static DBusPath promptAndGetResultAsDBusPath(DBusPath path) {
-        if (!(path.getPath().startsWith(Static.DBusPath.PROMPT + "/p")
-                || path.getPath().startsWith(Static.DBusPath.PROMPT + "/u"))) {
-            throw new IllegalArgumentException("Invalid DBusPath was provided for Prompt: " + path.getPath());
-        }
-        AtomicReference<Variant<?>> resultRef = new AtomicReference<>();
-        var latch = new CountDownLatch(1);
-        var prompt = new Prompt(path);
-        prompt.addCompletedHandler((dismissed, result) -> {
-            resultRef.set(result);
-            latch.countDown();
-        });
-        prompt.prompt("0");
-        try {
-            latch.await();
-        } catch (InterruptedException i) {
-            Thread.currentThread().interrupt();
-            return new DBusPath("/");
-        }
-
-        Variant<?> variant = resultRef.get();
-        if (variant == null) {
-            return new DBusPath("/");
-        }
-
-        Object value = variant.getValue();
-
-        if (value instanceof DBusPath) {
-            @SuppressWarnings("unchecked")
-            Variant<DBusPath> dBusPathVariant = ((Variant<DBusPath>) resultRef.get());
-            return dBusPathVariant.getValue();
-        }
+        return await(promptAndGetResultAsDBusPathAsync(path), new DBusPath("/"));
+    }
 
-        throw new IllegalStateException("Unexpected result type from Prompt: " + value.getClass());
+    /**
+     * Shows the prompt for the given path without waiting for it.
+     *
+     * @param path The <code>DBusPath</code> of the prompt to show.
+     * @return The <code>DBusPath</code> of the object the prompt was executed for, e.g. the path of the collection.
+     * When something went wrong on executing the prompt or when the prompt was dismissed, "/" is returned.
+     */
+    public static CompletableFuture<DBusPath> promptAndGetResultAsDBusPathAsync(DBusPath path) {
+        return prompt(path).handle((completed, error) -> {
+            if (error != null || completed.b == null) {
+                return new DBusPath("/");
+            }
+            Object value = completed.b.getValue();
+            if (value instanceof DBusPath dBusPath) {
+                return dBusPath;
+            }
+            throw new IllegalStateException("Unexpected result type from Prompt: " + value.getClass());
+        });
     }
 
     /**
      * Shows the prompt for the given path and waits, until the prompt finished or was dismissed.
+     * <br>
+     * Waiting does not hold any monitor, so a virtual thread calling this method does not get pinned to its
+     * carrier thread, see {@link ExecutionMode#VIRTUAL}.
      *
      * @param path The <code>DBusPath</code> of the prompt to show.
      * @return The <code>DBusPath</code> of the object the prompt was executed for, e.g. an
@@ -71,34 +102,48 @@ public class Util {
      * <p>When something went wrong on executing the prompt or when the prompt was dismissed, "/" is returned.</p>
      */
     public static ArrayList<DBusPath> promptAndGetResultAsArrayList(DBusPath path) {
-        if (!(path.getPath().startsWith(Static.DBusPath.PROMPT + "/p")
-                || path.getPath().startsWith(Static.DBusPath.PROMPT + "/u"))) {
-            throw new IllegalArgumentException("Invalid DBusPath was provided for Prompt: " + path.getPath());
-        }
-
-        AtomicReference<Variant<?>> resultRef = new AtomicReference<>();
-        var latch = new CountDownLatch(1);
-        var prompt = new Prompt(path);
-        prompt.addCompletedHandler((dismissed, result) -> {
-            resultRef.set(result);
-            latch.countDown();
-        });
+        return await(promptAndGetResultAsArrayListAsync(path), new ArrayList<>());
+    }
 
-        prompt.prompt("0");
+    /**
+     * Shows the prompt for the given path without waiting for it.
+     *
+     * @param path The <code>DBusPath</code> of the prompt to show.
+     * @return The list of the objects the prompt was executed for, like the paths of the Collections that were
+     * unlocked. When something went wrong on executing the prompt or when the prompt was dismissed, the list
+     * is empty.
+     */
+    public static CompletableFuture<ArrayList<DBusPath>> promptAndGetResultAsArrayListAsync(DBusPath path) {
+        return prompt(path).handle((completed, error) -> error != null ? new ArrayList<>() : toArrayList(completed));
+    }
 
+    /**
+     * Shows the prompt for the given path and waits at most the given time, until the prompt finished or was
+     * dismissed. A prompt, that is not answered in time, gets dismissed.
+     *
+     * @param path    The <code>DBusPath</code> of the prompt to show.
+     * @param timeout How long to wait for the user to answer the prompt.
+     * @return The list of the objects the prompt was executed for, like the paths of the Collections that were
+     * unlocked. When something went wrong on executing the prompt, when the prompt was dismissed or not answered
+     * in time, the list is empty.
+     */
+    public static ArrayList<DBusPath> promptAndGetResultAsArrayList(DBusPath path, Duration timeout) {
+        validate(path);
         try {
-            latch.await();
-        } catch (InterruptedException i) {
+            return toArrayList(new Prompt(path).prompt("0", timeout));
+        } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             return new ArrayList<>();
+        } catch (ExecutionException | TimeoutException e) {
+            return new ArrayList<>();
         }
+    }
 
-        Variant<?> variant = resultRef.get();
-        if (variant == null) {
+    private static ArrayList<DBusPath> toArrayList(Pair<Boolean, Variant<?>> completed) {
+        if (completed.b == null) {
             return new ArrayList<>();
         }
-
-        Object value = variant.getValue();
+        Object value = completed.b.getValue();
 
         if (value instanceof List<?> list && list.isEmpty()) {
             // Prompt was dismissed
@@ -114,4 +159,30 @@ public class Util {
 
         throw new IllegalStateException("Unexpected result type from Prompt: " + value.getClass());
     }
+
+    private static CompletableFuture<Pair<Boolean, Variant<?>>> prompt(DBusPath path) {
+        validate(path);
+        return new Prompt(path).promptAsync("0");
+    }
+
+    private static void validate(DBusPath path) {
+        if (!(path.getPath().startsWith(Static.DBusPath.PROMPT + "/p")
+                || path.getPath().startsWith(Static.DBusPath.PROMPT + "/u"))) {
+            throw new IllegalArgumentException("Invalid DBusPath was provided for Prompt: " + path.getPath());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future, T onInterrupt) {
+        try {
+            return future.get();
+        } catch (InterruptedException i) {
+            Thread.currentThread().interrupt();
+            return onInterrupt;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
 }
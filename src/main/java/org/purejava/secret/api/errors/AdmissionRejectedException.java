@@ -0,0 +1,7 @@
+package org.purejava.secret.api.errors;
+
+public class AdmissionRejectedException extends DBusCallException {
+    public AdmissionRejectedException(String operation, String operator) {
+        super("Rejected " + operation + " for " + operator + " to protect the Secret Service", null, false);
+    }
+}
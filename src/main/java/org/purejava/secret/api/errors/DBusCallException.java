@@ -4,4 +4,16 @@ public class DBusCallException extends Exception {
     public DBusCallException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * For errors that are an expected outcome of a call, e.g. a locked item. These are reported by the
+     * Secret Service rather than raised by the library, so filling in their stack trace is skipped.
+     *
+     * @param message The message.
+     * @param cause   The DBus error.
+     * @param writableStackTrace Whether the stack trace gets filled in.
+     */
+    protected DBusCallException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
 }
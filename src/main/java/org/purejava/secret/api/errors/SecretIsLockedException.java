@@ -1,7 +1,7 @@
 package org.purejava.secret.api.errors;
 
-public class SecretIsLockedException extends DBusCallException {
+public class SecretIsLockedException extends SecretServiceException {
     public SecretIsLockedException(String operation, String operator, Throwable cause) {
-        super("IsLocked on " + operator + " during " + operation, cause);
+        super("IsLocked", operation, operator, cause);
     }
 }
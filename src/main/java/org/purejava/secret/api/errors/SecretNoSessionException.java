@@ -1,7 +1,7 @@
 package org.purejava.secret.api.errors;
 
-public class SecretNoSessionException extends DBusCallException {
+public class SecretNoSessionException extends SecretServiceException {
     public SecretNoSessionException(String operation, String operator, Throwable cause) {
-        super("NoSession on " + operator + " during " + operation, cause);
+        super("NoSession", operation, operator, cause);
     }
 }
@@ -1,7 +1,7 @@
 package org.purejava.secret.api.errors;
 
-public class SecretNoSuchObjectException extends DBusCallException {
+public class SecretNoSuchObjectException extends SecretServiceException {
     public SecretNoSuchObjectException(String operation, String operator, Throwable cause) {
-        super("NoSuchObject on " + operator + " during " + operation, cause);
+        super("NoSuchObject", operation, operator, cause);
     }
 }
@@ -0,0 +1,34 @@
+package org.purejava.secret.api.errors;
+
+/**
+ * An error the Secret Service reports as an expected outcome of a call, such as a locked item.
+ * <br>
+ * These errors are frequent and say nothing about the code path of the caller, so they are created without
+ * a stack trace and their message is only put together when it is asked for.
+ */
+public abstract class SecretServiceException extends DBusCallException {
+
+    private final String error;
+    private final String operation;
+    private final String operator;
+
+    protected SecretServiceException(String error, String operation, String operator, Throwable cause) {
+        super(null, cause, false);
+        this.error = error;
+        this.operation = operation;
+        this.operator = operator;
+    }
+
+    @Override
+    public String getMessage() {
+        return error + " on " + operator + " during " + operation;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+}
@@ -0,0 +1,10 @@
+package org.purejava.secret.api.handlers;
+
+import org.freedesktop.dbus.DBusPath;
+
+import java.util.Set;
+
+@FunctionalInterface
+public interface ItemBatchHandler {
+    void onItems(Set<DBusPath> created, Set<DBusPath> changed, Set<DBusPath> deleted);
+}
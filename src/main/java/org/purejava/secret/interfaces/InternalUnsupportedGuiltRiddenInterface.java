@@ -0,0 +1,52 @@
+package org.purejava.secret.interfaces;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.annotations.DBusInterfaceName;
+import org.freedesktop.dbus.interfaces.DBusInterface;
+import org.freedesktop.dbus.types.Variant;
+import org.purejava.secret.api.Secret;
+
+import java.util.Map;
+
+/**
+ * Extension of gnome-keyring, that manages collections with a master password passed in directly, instead of
+ * asking the user for it with a prompt. It is exported next to the Service interface on
+ * <code>/org/freedesktop/secrets</code>.
+ */
+@DBusInterfaceName("org.gnome.keyring.InternalUnsupportedGuiltRiddenInterface")
+public interface InternalUnsupportedGuiltRiddenInterface extends DBusInterface {
+
+    /**
+     * Change the master password of a collection, given its current one.
+     *
+     * @param collection The collection.
+     * @param original   The current master password, encoded with the included session.
+     * @param master     The new master password, encoded with the included session.
+     */
+    void ChangeWithMasterPassword(DBusPath collection, Secret original, Secret master);
+
+    /**
+     * Change the master password of a collection with a prompt.
+     *
+     * @param collection The collection.
+     * @return prompt    &mdash; A prompt object to change the password with.
+     */
+    DBusPath ChangeWithPrompt(DBusPath collection);
+
+    /**
+     * Create a new collection, protected by the given master password.
+     *
+     * @param properties Properties for the new collection, e.g. its label.
+     * @param master     The master password, encoded with the included session.
+     * @return collection &mdash; The new collection object.
+     */
+    DBusPath CreateWithMasterPassword(Map<String, Variant<?>> properties, Secret master);
+
+    /**
+     * Unlock a collection with its master password.
+     *
+     * @param collection The collection.
+     * @param master     The master password, encoded with the included session.
+     */
+    void UnlockWithMasterPassword(DBusPath collection, Secret master);
+}
@@ -0,0 +1,55 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.AdmissionController;
+import org.purejava.secret.api.AdmissionController.Settings;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionControllerTest {
+
+    @Test
+    @DisplayName("Reject calls beyond the limit of calls in flight")
+    void limitInFlight() {
+        var admission = new AdmissionController(
+                new Settings(2, 1, false, Duration.ofMillis(250), 0, 0, Duration.ofMillis(20)));
+        var first = admission.acquire();
+        var second = admission.acquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(admission.acquire());
+        assertEquals(1, admission.getRejected());
+
+        first.release(false);
+        assertNotNull(admission.acquire());
+        assertEquals(2, admission.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Halve the limit on overload and let it grow again")
+    void adaptLimit() {
+        var admission = new AdmissionController(
+                new Settings(8, 1, true, Duration.ofSeconds(10), 0, 0, Duration.ofMillis(20)));
+        admission.acquire().release(true);
+        assertEquals(4, admission.getLimit());
+        for (int i = 0; i < 5; i++) {
+            admission.acquire().release(false);
+        }
+        assertEquals(5, admission.getLimit());
+    }
+
+    @Test
+    @DisplayName("Limit the rate of calls with a token bucket")
+    void limitRate() {
+        var admission = new AdmissionController(
+                new Settings(8, 1, false, Duration.ofMillis(250), 1, 2, Duration.ofMillis(20)));
+        admission.acquire().release(false);
+        admission.acquire().release(false);
+        assertNull(admission.acquire());
+    }
+}
@@ -0,0 +1,39 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.Backend;
+import org.purejava.secret.api.BackendCapabilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackendTest {
+
+    @Test
+    @DisplayName("Recognize the backend by the name of its process")
+    void fromProcessName() {
+        assertEquals(Backend.GNOME_KEYRING, Backend.fromProcessName("gnome-keyring-d\n"));
+        assertEquals(Backend.KWALLET, Backend.fromProcessName("kwalletd6\n"));
+        assertEquals(Backend.KWALLET, Backend.fromProcessName("ksecretd"));
+        assertEquals(Backend.KEEPASSXC, Backend.fromProcessName("keepassxc"));
+        assertEquals(Backend.UNKNOWN, Backend.fromProcessName("oo7-daemon"));
+        assertEquals(Backend.UNKNOWN, Backend.fromProcessName(null));
+    }
+
+    @Test
+    @DisplayName("An unknown backend gets the conservative strategies")
+    void conservativeDefaults() {
+        var unknown = BackendCapabilities.of(Backend.UNKNOWN);
+        assertFalse(unknown.batchedSecrets());
+        assertFalse(unknown.reliableItemSignals());
+        assertFalse(unknown.getAll());
+        assertFalse(unknown.masterPasswordUnlock());
+
+        var gnome = BackendCapabilities.of(Backend.GNOME_KEYRING);
+        assertTrue(gnome.batchedSecrets());
+        assertTrue(gnome.reliableItemSignals());
+        assertTrue(gnome.masterPasswordUnlock());
+    }
+}
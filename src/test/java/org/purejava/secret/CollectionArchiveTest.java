@@ -0,0 +1,91 @@
+package org.purejava.secret;
+
+import org.freedesktop.dbus.DBusPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.purejava.secret.api.*;
+
+import javax.crypto.KeyGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionArchiveTest {
+
+    private static <T> T requireSuccess(DBusMessageHandler.DBusResult<T> result, String message) {
+        return switch (result) {
+            case DBusMessageHandler.DBusResult.Success<T> success -> success.value();
+            case DBusMessageHandler.DBusResult.Failure<T> failure -> fail(message, failure.error());
+        };
+    }
+
+    final String NAME = "TESTArchive";
+    private Context context;
+
+    @BeforeEach
+    void beforeEach() {
+        context = new Context();
+        context.ensureService();
+    }
+
+    @Test
+    @DisplayName("Export a collection to an archive and import it again")
+    void exportAndImport() throws Exception {
+        EncryptedSession session = new EncryptedSession();
+        assertTrue(session.setupEncryptedSession());
+        var created = requireSuccess(
+            context.service.createCollection(Collection.createProperties(NAME), ""),
+            "Failed to create collection");
+        DBusPath collectionPath = Util.promptAndGetResultAsDBusPath(created.b);
+        var collection = new Collection(collectionPath);
+        collection.createItems(List.of(
+            ItemSpec.of("Item1", Map.of("archive", "1"), "secret1"),
+            ItemSpec.of("Item2", Map.of("archive", "2"), "secret2")
+        ), session, false);
+
+        var keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        var key = keyGenerator.generateKey();
+        var archive = new ByteArrayOutputStream();
+        var exported = requireSuccess(CollectionArchive.export(collection, session, key, archive), "Failed to export");
+        assertEquals(2L, exported.total());
+        assertEquals(2L, exported.written());
+        assertTrue(exported.isComplete());
+
+        var items = requireSuccess(collection.getItems(), "Failed to retrieve collection items");
+        context.service.deleteItems(items);
+        var imported = CollectionArchive.importInto(collection, session, key,
+            new ByteArrayInputStream(archive.toByteArray()), false);
+        assertEquals(2, imported.size());
+        var item = requireSuccess(imported.getFirst(), "Failed to import item");
+        assertArrayEquals("secret1".toCharArray(), session.decrypt(new Item(item).getSecret(session)));
+
+        requireSuccess(collection.delete(), "Failed to delete collection");
+    }
+
+    @Test
+    @DisplayName("Keep a previous archive file, if an export fails")
+    void failedExportKeepsArchive(@TempDir Path dir) throws Exception {
+        EncryptedSession session = new EncryptedSession();
+        assertTrue(session.setupEncryptedSession());
+        var keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        var archive = dir.resolve("backup.ssca");
+        Files.writeString(archive, "previous");
+
+        var missing = new Collection(new DBusPath("/org/freedesktop/secrets/collection/" + NAME + "Missing"));
+        var result = CollectionArchive.export(missing, session, keyGenerator.generateKey(), archive);
+        assertInstanceOf(DBusMessageHandler.DBusResult.Failure.class, result);
+        assertEquals("previous", Files.readString(archive));
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(archive), files.toList());
+        }
+    }
+}
@@ -154,4 +154,43 @@ class CollectionCreateItemTest {
         );
         assertEquals("/", deletePrompt.getPath());
     }
+
+    @Test
+    @DisplayName("Create and delete many items at once")
+    void createAndDeleteItems() throws InvalidAlgorithmParameterException,
+        NoSuchAlgorithmException,
+        InvalidKeySpecException,
+        InvalidKeyException {
+        EncryptedSession session = new EncryptedSession();
+        session.initialize();
+        assertTrue(session.openSession());
+        session.generateSessionKey();
+        var createCollectionResult = requireSuccess(
+            context.service.createCollection(Collection.createProperties(NAME + "s"), ""),
+            "Failed to create collection"
+        );
+        DBusPath collectionPath =
+            Util.promptAndGetResultAsDBusPath(createCollectionResult.b);
+        assertEquals(COLLECTION_PATH + "s", collectionPath.getPath());
+        var myCollection = new Collection(collectionPath);
+        var specs = List.of(
+            ItemSpec.of("Item1", Map.of("bulk", "1"), "secret1"),
+            ItemSpec.of("Item2", Map.of("bulk", "2"), "secret2"),
+            ItemSpec.of("Item3", Map.of("bulk", "3"), "secret3")
+        );
+        var results = myCollection.createItems(specs, session, false);
+        assertEquals(3, results.size());
+        for (var result : results) {
+            assertTrue(requireSuccess(result, "Failed to create item")
+                .getPath()
+                .startsWith(COLLECTION_PATH + "s/"));
+        }
+        var items = requireSuccess(myCollection.getItems(), "Failed to retrieve collection items");
+        assertEquals(3, items.size());
+        for (var deleted : context.service.deleteItems(items)) {
+            assertTrue(requireSuccess(deleted, "Failed to delete item"));
+        }
+        assertTrue(requireSuccess(myCollection.getItems(), "Failed to retrieve collection items").isEmpty());
+        requireSuccess(myCollection.delete(), "Failed to delete collection");
+    }
 }
@@ -0,0 +1,61 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.CollectionFingerprint;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CollectionFingerprintTest {
+
+    private static final String COLLECTION = "/org/freedesktop/secrets/collection/TESTFingerprint/";
+
+    @Test
+    @DisplayName("The digest does not depend on the order of the items")
+    void orderIndependent() {
+        Map<String, Long> forward = new LinkedHashMap<>();
+        Map<String, Long> backward = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            forward.put(COLLECTION + i, 1_700_000_000L + i);
+            backward.put(COLLECTION + (99 - i), 1_700_000_099L - i);
+        }
+        assertEquals(CollectionFingerprint.of(forward), CollectionFingerprint.of(backward));
+    }
+
+    @Test
+    @DisplayName("The digest can be updated item by item and detects every kind of change")
+    void incremental() {
+        Map<String, Long> items = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            items.put(COLLECTION + i, 1_700_000_000L);
+        }
+        long before = CollectionFingerprint.of(items);
+
+        items.put(COLLECTION + 7, 1_700_000_001L);
+        long changed = CollectionFingerprint.of(items);
+        assertNotEquals(before, changed);
+        assertEquals(changed, before
+                - CollectionFingerprint.digest(COLLECTION + 7, 1_700_000_000L)
+                + CollectionFingerprint.digest(COLLECTION + 7, 1_700_000_001L));
+
+        items.remove(COLLECTION + 8);
+        assertNotEquals(changed, CollectionFingerprint.of(items));
+
+        items.put(COLLECTION + 8, 1_700_000_000L);
+        items.put(COLLECTION + 7, 1_700_000_000L);
+        assertEquals(before, CollectionFingerprint.of(items));
+    }
+
+    @Test
+    @DisplayName("Swapping the timestamps of two items changes the digest")
+    void swappedTimestamps() {
+        long one = CollectionFingerprint.of(Map.of(COLLECTION + 1, 10L, COLLECTION + 2, 20L));
+        long other = CollectionFingerprint.of(Map.of(COLLECTION + 1, 20L, COLLECTION + 2, 10L));
+        assertNotEquals(one, other);
+    }
+}
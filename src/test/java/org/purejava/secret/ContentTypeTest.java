@@ -0,0 +1,43 @@
+package org.purejava.secret;
+
+import org.freedesktop.dbus.DBusPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.ContentType;
+import org.purejava.secret.api.Secret;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ContentTypeTest {
+
+    @Test
+    @DisplayName("Parse content types into interned instances")
+    void parseAndIntern() {
+        assertSame(ContentType.TEXT_PLAIN_UTF_8, ContentType.parse("text/plain; charset=utf-8"));
+        assertSame(ContentType.TEXT_PLAIN_UTF_8, ContentType.parse("text/plain;charset=UTF-8"));
+        assertSame(ContentType.TEXT_PLAIN_UTF_8, ContentType.parse(""));
+        assertSame(ContentType.APPLICATION_OCTET_STREAM, ContentType.parse("application/octet-stream"));
+
+        var latin1 = ContentType.parse("text/html, charset=iso-8859-1");
+        assertEquals("text/html", latin1.getMimeType());
+        assertEquals(StandardCharsets.ISO_8859_1, latin1.getCharset());
+        assertEquals("text/html; charset=iso-8859-1", latin1.getValue());
+
+        var plain = ContentType.parse("text/plain");
+        assertEquals("text/plain", plain.getValue());
+        assertNull(plain.getCharset());
+    }
+
+    @Test
+    @DisplayName("Secrets carry the canonical content type")
+    void secretContentType() {
+        var secret = new Secret(new DBusPath("/"), null, new byte[0], "text/plain; charset=UTF-8");
+        assertEquals(Secret.TEXT_PLAIN_CHARSET_UTF_8, secret.getContentType());
+        assertSame(ContentType.TEXT_PLAIN_UTF_8, secret.getParsedContentType());
+        assertEquals(StandardCharsets.UTF_8, secret.getCharsetString());
+    }
+}
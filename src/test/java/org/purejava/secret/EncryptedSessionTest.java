@@ -3,7 +3,14 @@ package org.purejava.secret;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.purejava.secret.api.EncryptedSession;
+import org.purejava.secret.api.Secret;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class EncryptedSessionTest {
@@ -14,4 +21,20 @@ class EncryptedSessionTest {
         EncryptedSession session = new EncryptedSession();
         assertTrue(session.setupEncryptedSession());
     }
+
+    @Test
+    @DisplayName("Encrypt and decrypt a large binary secret in chunks")
+    void streamLargeBinarySecret() throws Exception {
+        EncryptedSession session = new EncryptedSession();
+        assertTrue(session.setupEncryptedSession());
+        byte[] plain = new byte[3 * 1024 * 1024 + 7];
+        new Random(42).nextBytes(plain);
+
+        Secret secret = session.encrypt(new ByteArrayInputStream(plain), null);
+        assertEquals(Secret.APPLICATION_OCTET_STREAM, secret.getContentType());
+
+        var decrypted = new ByteArrayOutputStream();
+        session.decrypt(secret, decrypted);
+        assertArrayEquals(plain, decrypted.toByteArray());
+    }
 }
@@ -0,0 +1,71 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.ExecutionMode;
+import org.purejava.secret.api.SignalDispatcher;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutionModeTest {
+
+    @AfterEach
+    void afterEach() {
+        ExecutionMode.use(ExecutionMode.PLATFORM);
+    }
+
+    @Test
+    @DisplayName("Let 10k signal handlers wait concurrently on virtual threads")
+    void manyWaitingHandlers() throws Exception {
+        ExecutionMode.use(ExecutionMode.VIRTUAL);
+        int handlers = 10_000;
+        var dispatcher = new SignalDispatcher(SignalDispatcher.DEFAULT_CAPACITY, SignalDispatcher.OverflowPolicy.BLOCK);
+        var threads = ManagementFactory.getThreadMXBean();
+        int platformThreadsBefore = threads.getThreadCount();
+
+        var waiting = new CountDownLatch(handlers);
+        var prompt = new CountDownLatch(1);
+        var done = new CountDownLatch(handlers);
+        var onVirtualThreads = new AtomicInteger();
+        List<SignalDispatcher.Subscription<String>> subscriptions = new ArrayList<>(handlers);
+        for (int i = 0; i < handlers; i++) {
+            subscriptions.add(dispatcher.<String>subscribe(new Object(), signal -> {
+                if (Thread.currentThread().isVirtual()) {
+                    onVirtualThreads.incrementAndGet();
+                }
+                waiting.countDown();
+                try {
+                    // stands in for a handler waiting for a prompt to complete
+                    prompt.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }));
+        }
+        try {
+            subscriptions.forEach(subscription -> subscription.offer("Completed"));
+            assertTrue(waiting.await(30, TimeUnit.SECONDS));
+            // every waiting handler holds a queue of its own, but none of them a platform thread
+            int platformThreadsWaiting = threads.getThreadCount();
+            prompt.countDown();
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+
+            assertEquals(handlers, onVirtualThreads.get());
+            assertTrue(platformThreadsWaiting - platformThreadsBefore < 2 * Runtime.getRuntime().availableProcessors() + 16,
+                    "Waiting handlers took up " + (platformThreadsWaiting - platformThreadsBefore) + " platform threads");
+        } finally {
+            prompt.countDown();
+            subscriptions.forEach(SignalDispatcher.Subscription::close);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.purejava.secret;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.connections.impl.DBusConnectionBuilder;
+import org.freedesktop.dbus.types.Variant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.Collection;
+import org.purejava.secret.api.DBusMessageHandler;
+import org.purejava.secret.api.EncryptedSession;
+import org.purejava.secret.api.GnomeKeyring;
+import org.purejava.secret.api.Secret;
+import org.purejava.secret.api.Static;
+import org.purejava.secret.interfaces.InternalUnsupportedGuiltRiddenInterface;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GnomeKeyringTest {
+
+    private static final DBusPath COLLECTION = new DBusPath("/org/freedesktop/secrets/collection/TESTGnomeKeyring");
+    private static final String PASSWORD = "TESTmaster";
+
+    private DBusConnection daemon;
+    private StandIn standIn;
+    private EncryptedSession session;
+
+    /**
+     * Stands in for gnome-keyring and remembers the master password it got.
+     */
+    private static class StandIn implements InternalUnsupportedGuiltRiddenInterface {
+
+        private volatile Secret master;
+
+        @Override
+        public void ChangeWithMasterPassword(DBusPath collection, Secret original, Secret master) {
+            this.master = master;
+        }
+
+        @Override
+        public DBusPath ChangeWithPrompt(DBusPath collection) {
+            return new DBusPath("/");
+        }
+
+        @Override
+        public DBusPath CreateWithMasterPassword(Map<String, Variant<?>> properties, Secret master) {
+            this.master = master;
+            return COLLECTION;
+        }
+
+        @Override
+        public void UnlockWithMasterPassword(DBusPath collection, Secret master) {
+            this.master = master;
+        }
+
+        @Override
+        public String getObjectPath() {
+            return Static.DBusPath.SECRETS;
+        }
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        daemon = DBusConnectionBuilder.forSessionBus().withShared(false).build();
+        standIn = new StandIn();
+        daemon.exportObject(standIn);
+        session = new EncryptedSession();
+        assertTrue(session.setupEncryptedSession());
+    }
+
+    @AfterEach
+    void afterEach() {
+        daemon.unExportObject(Static.DBusPath.SECRETS);
+        daemon.close();
+    }
+
+    @Test
+    @DisplayName("Unlock with the master password, transferred encrypted")
+    void unlockWithMasterPassword() throws Exception {
+        var keyring = new GnomeKeyring(daemon.getUniqueName());
+        assertTrue(keyring.isSupported());
+
+        var result = keyring.unlockWithMasterPassword(COLLECTION, PASSWORD, session);
+        assertInstanceOf(DBusMessageHandler.DBusResult.Success.class, result);
+        assertEquals(session.getSession(), standIn.master.getSession());
+        assertEquals(PASSWORD, new String(session.decrypt(standIn.master)));
+    }
+
+    @Test
+    @DisplayName("Create a collection with a master password")
+    void createWithMasterPassword() throws Exception {
+        var keyring = new GnomeKeyring(daemon.getUniqueName());
+
+        var result = keyring.createWithMasterPassword(Collection.createProperties("TESTGnomeKeyring"), PASSWORD, session);
+        assertEquals(new DBusMessageHandler.DBusResult.Success<>(COLLECTION), result);
+        assertEquals(PASSWORD, new String(session.decrypt(standIn.master)));
+    }
+
+    @Test
+    @DisplayName("Reject an empty master password without calling gnome-keyring")
+    void emptyMasterPassword() {
+        var keyring = new GnomeKeyring(daemon.getUniqueName());
+
+        assertInstanceOf(DBusMessageHandler.DBusResult.Failure.class, keyring.unlockWithMasterPassword(COLLECTION, "", session));
+        assertInstanceOf(DBusMessageHandler.DBusResult.Failure.class, keyring.unlockWithMasterPassword(COLLECTION, null, session));
+        assertInstanceOf(DBusMessageHandler.DBusResult.Failure.class,
+                keyring.changeWithMasterPassword(COLLECTION, PASSWORD, "", session));
+        assertNull(standIn.master);
+    }
+}
@@ -0,0 +1,36 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.KeyPairReservoir;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyPairReservoirTest {
+
+    @Test
+    @DisplayName("Hand out every key pair only once and refill in the background")
+    void takeAndRefill() throws NoSuchAlgorithmException, InvalidAlgorithmParameterException, InterruptedException {
+        var reservoir = new KeyPairReservoir(2);
+        try {
+            var first = reservoir.take();
+            var second = reservoir.take();
+            assertNotEquals(first.getPublic(), second.getPublic());
+            assertEquals(2, reservoir.getHits() + reservoir.getMisses());
+
+            for (int i = 0; i < 100 && reservoir.getPoolDepth() < reservoir.getCapacity(); i++) {
+                Thread.sleep(100);
+            }
+            assertEquals(2, reservoir.getPoolDepth());
+            assertTrue(reservoir.getGenerated() >= 4);
+            assertTrue(reservoir.getRefillRate() > 0);
+        } finally {
+            reservoir.stop();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.purejava.secret;
+
+import org.freedesktop.dbus.DBusPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.DBusMessageHandler;
+import org.purejava.secret.api.LockStateCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LockStateCacheTest {
+
+    private static final String COLLECTION = "/org/freedesktop/secrets/collection/TESTLockStateCache";
+
+    @Test
+    @DisplayName("Query a lock state once and keep it current")
+    void queryOnceAndUpdate() {
+        var lockStates = LockStateCache.getInstance();
+        var collection = new DBusPath(COLLECTION);
+        var item = new DBusPath(COLLECTION + "/1");
+        var queries = new AtomicInteger();
+        List<String> changes = new ArrayList<>();
+        LockStateCache.Listener listener = (object, locked) -> changes.add(object.getPath() + "=" + locked);
+        lockStates.addListener(listener);
+        try {
+            lockStates.update(List.of(collection), false);
+            for (int i = 0; i < 3; i++) {
+                var result = lockStates.isLocked(item, () -> {
+                    queries.incrementAndGet();
+                    return new DBusMessageHandler.DBusResult.Success<>(false);
+                });
+                assertEquals(new DBusMessageHandler.DBusResult.Success<>(false), result);
+            }
+            assertEquals(1, queries.get());
+
+            lockStates.update(List.of(collection), true);
+            lockStates.isLocked(item, () -> {
+                queries.incrementAndGet();
+                return new DBusMessageHandler.DBusResult.Success<>(true);
+            });
+            assertEquals(2, queries.get());
+            assertEquals(List.of(COLLECTION + "=false", COLLECTION + "=true"), changes);
+        } finally {
+            lockStates.removeListener(listener);
+            lockStates.reset();
+        }
+    }
+
+    @Test
+    @DisplayName("Forget lock states on IsLocked and do not record answers that got stale")
+    void invalidateAndStaleAnswers() {
+        var lockStates = LockStateCache.getInstance();
+        var collection = new DBusPath(COLLECTION);
+        var item = new DBusPath(COLLECTION + "/1");
+        var queries = new AtomicInteger();
+        Supplier<DBusMessageHandler.DBusResult<Boolean>> unlocked = () -> {
+            queries.incrementAndGet();
+            return new DBusMessageHandler.DBusResult.Success<>(false);
+        };
+        List<String> changes = new ArrayList<>();
+        LockStateCache.Listener listener = (object, locked) -> changes.add(object.getPath() + "=" + locked);
+        lockStates.addListener(listener);
+        try {
+            lockStates.isLocked(item, unlocked);
+            lockStates.isLocked(collection, unlocked);
+            assertEquals(2, queries.get());
+
+            // as done when a call on the item failed with IsLocked
+            lockStates.invalidate(item);
+            lockStates.isLocked(item, unlocked);
+            lockStates.isLocked(collection, unlocked);
+            assertEquals(4, queries.get());
+            // listeners, e.g. caches of secrets, learn about the lock found through the error
+            assertEquals(List.of(COLLECTION + "/1=true", COLLECTION + "=true"), changes);
+            changes.clear();
+
+            // the collection gets locked while the state of the item is queried
+            lockStates.invalidate(item);
+            lockStates.isLocked(item, () -> {
+                lockStates.update(List.of(collection), true);
+                return unlocked.get();
+            });
+            lockStates.isLocked(item, unlocked);
+            assertEquals(6, queries.get());
+        } finally {
+            lockStates.removeListener(listener);
+            lockStates.reset();
+        }
+    }
+}
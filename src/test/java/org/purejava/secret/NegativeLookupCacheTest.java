@@ -0,0 +1,60 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.NegativeLookupCache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NegativeLookupCacheTest {
+
+    private static final String COLLECTION = "/org/freedesktop/secrets/collection/TESTNegativeLookupCache";
+
+    @AfterEach
+    void afterEach() {
+        var cache = NegativeLookupCache.getInstance();
+        cache.setTtl(NegativeLookupCache.DEFAULT_TTL);
+        cache.clear();
+    }
+
+    @Test
+    @DisplayName("Remember missing objects until they get created")
+    void missingObjects() {
+        var cache = NegativeLookupCache.getInstance();
+        cache.recordMissing(COLLECTION + "/1");
+        assertTrue(cache.isMissing(COLLECTION + "/1"));
+        assertFalse(cache.isMissing(COLLECTION + "/2"));
+
+        cache.objectCreated(COLLECTION);
+        assertFalse(cache.isMissing(COLLECTION + "/1"));
+    }
+
+    @Test
+    @DisplayName("Remember empty searches until an object gets created")
+    void emptySearches() {
+        var cache = NegativeLookupCache.getInstance();
+        var attributes = new HashMap<String, String>();
+        attributes.put("test", "negative");
+        cache.recordEmpty(COLLECTION, attributes);
+        assertTrue(cache.isKnownEmpty(COLLECTION, Map.of("test", "negative")));
+        assertFalse(cache.isKnownEmpty(COLLECTION, Map.of("test", "positive")));
+
+        cache.objectCreated(COLLECTION + "/1");
+        assertFalse(cache.isKnownEmpty(COLLECTION, attributes));
+    }
+
+    @Test
+    @DisplayName("Disable the cache with a time to live of zero")
+    void disabled() {
+        var cache = NegativeLookupCache.getInstance();
+        cache.setTtl(Duration.ZERO);
+        cache.recordMissing(COLLECTION + "/1");
+        assertFalse(cache.isMissing(COLLECTION + "/1"));
+    }
+}
@@ -0,0 +1,52 @@
+package org.purejava.secret;
+
+import org.freedesktop.dbus.exceptions.NotConnected;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.RetryPolicy;
+import org.purejava.secret.api.errors.DBusCallException;
+import org.purejava.secret.api.errors.SecretIsLockedException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    @Test
+    @DisplayName("Classify operations by idempotency")
+    void idempotency() {
+        assertTrue(RetryPolicy.isIdempotent("SearchItems"));
+        assertTrue(RetryPolicy.isIdempotent("Get(Locked)"));
+        assertTrue(RetryPolicy.isIdempotent("GetAll"));
+        assertTrue(RetryPolicy.isIdempotent("SetSecret"));
+        assertFalse(RetryPolicy.isIdempotent("CreateItem"));
+        assertFalse(RetryPolicy.isIdempotent("CreateCollection"));
+        assertFalse(RetryPolicy.isIdempotent("Delete"));
+    }
+
+    @Test
+    @DisplayName("Keep the jittered backoff within its bounds")
+    void backoff() {
+        var policy = new RetryPolicy(5, Duration.ofMillis(10), Duration.ofMillis(50));
+        for (int attempt = 1; attempt < 100; attempt++) {
+            var backoff = policy.backoff(attempt);
+            assertFalse(backoff.isNegative());
+            assertTrue(backoff.compareTo(Duration.ofMillis(attempt == 1 ? 10 : 50)) <= 0);
+        }
+        assertFalse(policy.shouldRetry(1, true, new SecretIsLockedException("GetSecret", "/", null)));
+    }
+
+    @Test
+    @DisplayName("Try calls once unless retries are switched on, and retry a lost connection")
+    void defaults() {
+        assertEquals(RetryPolicy.NONE, RetryPolicy.current());
+        var notConnected = new DBusCallException("Failed", new NotConnected("Disconnected"));
+        assertTrue(RetryPolicy.isTransient(notConnected));
+        assertFalse(RetryPolicy.NONE.shouldRetry(1, true, notConnected));
+        assertTrue(RetryPolicy.DEFAULT.shouldRetry(1, true, notConnected));
+        assertFalse(RetryPolicy.DEFAULT.shouldRetry(1, false, notConnected));
+    }
+}
@@ -0,0 +1,55 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.SecretBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecretBufferTest {
+
+    @Test
+    @DisplayName("Provide byte and char views of an off-heap secret")
+    void views() {
+        var plain = "pässwörd".getBytes(StandardCharsets.UTF_8);
+        try (var buffer = SecretBuffer.copyOf(ByteBuffer.wrap(plain), StandardCharsets.UTF_8)) {
+            assertEquals(plain.length, buffer.length());
+            assertTrue(buffer.asByteBuffer().isDirect());
+            assertEquals("pässwörd", buffer.asCharSequence().toString());
+            assertArrayEquals("pässwörd".toCharArray(), buffer.toChars());
+        }
+    }
+
+    @Test
+    @DisplayName("Wipe the secret on close")
+    void wipeOnClose() {
+        var buffer = SecretBuffer.copyOf(ByteBuffer.wrap("passwd".getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        var bytes = buffer.asByteBuffer();
+        var chars = buffer.asCharSequence();
+        buffer.close();
+        for (int i = 0; i < bytes.limit(); i++) {
+            assertEquals((byte) 0, bytes.get(i));
+        }
+        for (int i = 0; i < chars.length(); i++) {
+            assertEquals((char) 0, chars.charAt(i));
+        }
+        assertTrue(buffer.isClosed());
+        assertThrows(IllegalStateException.class, buffer::asByteBuffer);
+    }
+
+    @Test
+    @DisplayName("Copies are independent of the original")
+    void copyIsIndependent() {
+        var original = SecretBuffer.copyOf(ByteBuffer.wrap("passwd".getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        try (var copy = original.copy()) {
+            original.close();
+            assertEquals("passwd", copy.asCharSequence().toString());
+        }
+    }
+}
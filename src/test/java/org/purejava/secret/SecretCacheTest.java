@@ -0,0 +1,97 @@
+package org.purejava.secret;
+
+import org.freedesktop.dbus.DBusPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.AliasResolver;
+import org.purejava.secret.api.DBusMessageHandler;
+import org.purejava.secret.api.SecretBuffer;
+import org.purejava.secret.api.SecretCache;
+import org.purejava.secret.api.Static;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecretCacheTest {
+
+    private static final String COLLECTION = "/org/freedesktop/secrets/collection/TESTSecretCache";
+
+    private static SecretBuffer secret(String value) {
+        return SecretBuffer.copyOf(ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Serve cached secrets and evict the least recently used one")
+    void lruEviction() {
+        try (var cache = new SecretCache(2, Duration.ofMinutes(1))) {
+            var first = new DBusPath(COLLECTION + "/1");
+            var second = new DBusPath(COLLECTION + "/2");
+            var third = new DBusPath(COLLECTION + "/3");
+            try (var s1 = secret("one"); var s2 = secret("two"); var s3 = secret("three")) {
+                cache.put(first, s1, Duration.ofMinutes(1));
+                cache.put(second, s2, Duration.ofMinutes(1));
+                try (var hit = cache.getSecret(first, null)) {
+                    assertNotNull(hit);
+                    assertEquals("one", hit.asCharSequence().toString());
+                }
+                cache.put(third, s3, Duration.ofMinutes(1));
+            }
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.getHits());
+
+            cache.invalidateCollection(new DBusPath(COLLECTION));
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Expire cached secrets after their time to live")
+    void expiry() throws InterruptedException {
+        try (var cache = new SecretCache(2, Duration.ofMinutes(1)); var s = secret("expiring")) {
+            var item = new DBusPath(COLLECTION + "/1");
+            cache.put(item, s, Duration.ofMillis(10));
+            cache.put(new DBusPath(COLLECTION + "/2"), s, Duration.ofMinutes(1));
+            Thread.sleep(50);
+            cache.evictExpired();
+            assertEquals(1, cache.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Read a cached secret without copying and wipe it only after the reader returned")
+    void readWithoutCopy() {
+        try (var cache = new SecretCache(2, Duration.ofMinutes(1)); var s = secret("shared")) {
+            var item = new DBusPath(COLLECTION + "/1");
+            cache.put(item, s, Duration.ofMinutes(1));
+            var read = cache.withSecret(item, null, view -> {
+                assertTrue(view.isReadOnly());
+                // leaving the cache must not wipe the secret under the reader
+                cache.invalidate(item);
+                return StandardCharsets.UTF_8.decode(view).toString();
+            });
+            assertEquals("shared", read);
+            assertEquals(1, cache.getHits());
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Flush secrets cached through an alias together with the collection the alias points to")
+    void aliasedItems() {
+        var resolved = AliasResolver.getInstance().defaultCollection();
+        assertInstanceOf(DBusMessageHandler.DBusResult.Success.class, resolved);
+        var collection = ((DBusMessageHandler.DBusResult.Success<DBusPath>) resolved).value();
+        try (var cache = new SecretCache(2, Duration.ofMinutes(1)); var s = secret("aliased")) {
+            cache.put(new DBusPath(Static.DBusPath.DEFAULT_COLLECTION + "/1"), s, Duration.ofMinutes(1));
+            assertEquals(1, cache.size());
+            cache.invalidateCollection(collection);
+            assertEquals(0, cache.size());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.errors.SecretIsLockedException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SecretServiceExceptionTest {
+
+    @Test
+    @DisplayName("Expected Secret Service errors come without a stack trace")
+    void stackless() {
+        var error = new SecretIsLockedException("GetSecret", "/org/freedesktop/secrets/collection/login/1", null);
+        assertEquals(0, error.getStackTrace().length);
+        assertEquals("IsLocked on /org/freedesktop/secrets/collection/login/1 during GetSecret", error.getMessage());
+    }
+}
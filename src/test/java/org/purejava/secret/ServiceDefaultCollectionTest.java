@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ServiceDefaultCollectionTest {
@@ -21,4 +22,12 @@ class ServiceDefaultCollectionTest {
     void checkDefaultConnection() {
         assertTrue(context.service.hasDefaultCollection());
     }
+
+    @Test
+    @DisplayName("Resolve the default collection from the alias cache")
+    void resolveDefaultCollection() {
+        var expected = context.service.readAlias("default");
+        assertEquals(expected, context.service.defaultCollection());
+        assertEquals(expected, context.service.defaultCollection());
+    }
 }
@@ -6,15 +6,27 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
 import org.purejava.secret.api.Collection;
+import org.purejava.secret.api.CollectionSearchResult;
 import org.purejava.secret.api.DBusMessageHandler;
+import org.purejava.secret.api.EncryptedSession;
+import org.purejava.secret.api.ItemSpec;
 import org.purejava.secret.api.Static;
 import org.purejava.secret.api.Util;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -90,6 +102,135 @@ class ServiceTest {
         ).contains(paths.getFirst()));
     }
 
+    @Test
+    @DisplayName("Search all collections in parallel")
+    void searchAllCollections() {
+        var reported = new AtomicInteger();
+        var results = requireSuccess(
+            context.service.searchAllCollections(
+                Map.of("TESTsearchAllCollections", UUID.randomUUID().toString()),
+                Duration.ofSeconds(10),
+                result -> reported.incrementAndGet()
+            ).join(),
+            "Failed to search collections"
+        );
+        assertTrue(results.isEmpty());
+        assertEquals(0, reported.get());
+    }
+
+    @Test
+    @DisplayName("Search all collections and find a matching item")
+    void searchAllCollectionsMatch() {
+        var session = new EncryptedSession();
+        assertTrue(session.setupEncryptedSession());
+        var created = requireSuccess(
+            context.service.createCollection(Collection.createProperties("TESTsearchAllCollections"), ""),
+            "Failed to create collection"
+        );
+        var collection = new Collection(Util.promptAndGetResultAsDBusPath(created.b));
+        try {
+            var attributes = Map.of("TESTsearchAllCollections", UUID.randomUUID().toString());
+            var item = requireSuccess(
+                collection.createItems(List.of(ItemSpec.of("TESTsearchAllCollections", attributes, "secret")), session, false).getFirst(),
+                "Failed to create item"
+            );
+            var reported = new AtomicInteger();
+            var results = requireSuccess(
+                context.service.searchAllCollections(attributes, Duration.ofSeconds(10), result -> reported.incrementAndGet()).join(),
+                "Failed to search collections"
+            );
+            assertEquals(1, results.size());
+            assertEquals(1, reported.get());
+            var result = results.getFirst();
+            assertEquals(collection.getDBusPath(), result.collection().getPath());
+            assertEquals("TESTsearchAllCollections", result.label());
+            assertEquals(List.of(item), result.items());
+        } finally {
+            requireSuccess(collection.delete(), "Failed to delete collection");
+        }
+    }
+
+    @Test
+    @DisplayName("Search all collections with a timeout and get the collections that answered in time")
+    void searchAllCollectionsTimeout() throws Exception {
+        var session = new EncryptedSession();
+        assertTrue(session.setupEncryptedSession());
+        var first = new Collection(Util.promptAndGetResultAsDBusPath(requireSuccess(
+            context.service.createCollection(Collection.createProperties("TESTsearchAllCollections1"), ""),
+            "Failed to create collection"
+        ).b));
+        var second = new Collection(Util.promptAndGetResultAsDBusPath(requireSuccess(
+            context.service.createCollection(Collection.createProperties("TESTsearchAllCollections2"), ""),
+            "Failed to create collection"
+        ).b));
+        try {
+            var attributes = Map.of("TESTsearchAllCollections", UUID.randomUUID().toString());
+            Map<DBusPath, List<DBusPath>> expected = new HashMap<>();
+            for (var collection : List.of(first, second)) {
+                var item = requireSuccess(
+                    collection.createItems(List.of(ItemSpec.of("TESTsearchAllCollections", attributes, "secret")), session, false).getFirst(),
+                    "Failed to create item"
+                );
+                expected.put(new DBusPath(collection.getDBusPath()), List.of(item));
+            }
+
+            // given time, every collection answers
+            var results = requireSuccess(
+                context.service.searchAllCollections(attributes, Duration.ofSeconds(10), result -> { })
+                    .get(15, TimeUnit.SECONDS),
+                "Failed to search collections"
+            );
+            assertEquals(expected.size(), results.size());
+            results.forEach(result -> assertEquals(expected.get(result.collection()), result.items()));
+
+            // collections that did not answer right away are left out, instead of holding up the result
+            List<CollectionSearchResult> reported = new CopyOnWriteArrayList<>();
+            long start = System.nanoTime();
+            results = requireSuccess(
+                context.service.searchAllCollections(attributes, Duration.ZERO, reported::add)
+                    .get(10, TimeUnit.SECONDS),
+                "Failed to search collections"
+            );
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+            assertTrue(results.size() <= expected.size());
+            assertEquals(Set.copyOf(reported), Set.copyOf(results));
+            results.forEach(result -> assertEquals(expected.get(result.collection()), result.items()));
+        } finally {
+            requireSuccess(first.delete(), "Failed to delete collection");
+            requireSuccess(second.delete(), "Failed to delete collection");
+        }
+    }
+
+    @Test
+    @DisplayName("Delete many items at once, with the default and with an explicit prompt timeout")
+    void deleteItems() {
+        var session = new EncryptedSession();
+        assertTrue(session.setupEncryptedSession());
+        var created = requireSuccess(
+            context.service.createCollection(Collection.createProperties("TESTdeleteItems"), ""),
+            "Failed to create collection"
+        );
+        var collection = new Collection(Util.promptAndGetResultAsDBusPath(created.b));
+        try {
+            var items = collection.createItems(List.of(
+                ItemSpec.of("Item1", Map.of("TESTdeleteItems", "1"), "secret1"),
+                ItemSpec.of("Item2", Map.of("TESTdeleteItems", "2"), "secret2"),
+                ItemSpec.of("Item3", Map.of("TESTdeleteItems", "3"), "secret3")
+            ), session, false).stream().map(item -> requireSuccess(item, "Failed to create item")).toList();
+
+            var deleted = context.service.deleteItems(items.subList(0, 2));
+            assertEquals(List.of(new DBusMessageHandler.DBusResult.Success<>(true), new DBusMessageHandler.DBusResult.Success<>(true)), deleted);
+
+            var missing = new DBusPath(collection.getDBusPath() + "/missing");
+            deleted = context.service.deleteItems(List.of(items.get(2), missing), Duration.ofSeconds(10));
+            assertEquals(new DBusMessageHandler.DBusResult.Success<>(true), deleted.getFirst());
+            assertInstanceOf(DBusMessageHandler.DBusResult.Failure.class, deleted.get(1));
+            assertTrue(requireSuccess(collection.getItems(), "Failed to retrieve collection items").isEmpty());
+        } finally {
+            requireSuccess(collection.delete(), "Failed to delete collection");
+        }
+    }
+
     @Test
     @DisplayName("Create collection (dismissed)")
         // This collection should be dismissed.
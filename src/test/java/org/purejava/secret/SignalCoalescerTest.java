@@ -0,0 +1,57 @@
+package org.purejava.secret;
+
+import org.freedesktop.dbus.DBusPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.SignalCoalescer;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SignalCoalescerTest {
+
+    private static final String COLLECTION = "/org/freedesktop/secrets/collection/TESTSignalCoalescer";
+
+    @Test
+    @DisplayName("Merge a storm of item signals into one batch of distinct items")
+    void coalesceStorm() throws Exception {
+        var delivered = new CompletableFuture<SignalCoalescer.Batch>();
+        var coalescer = new SignalCoalescer("handler", Duration.ofHours(1), delivered::complete);
+        var created = new DBusPath(COLLECTION + "/1");
+        var changed = new DBusPath(COLLECTION + "/2");
+        var deleted = new DBusPath(COLLECTION + "/3");
+        var temporary = new DBusPath(COLLECTION + "/4");
+        coalescer.created(created);
+        for (int i = 0; i < 1000; i++) {
+            coalescer.changed(created);
+            coalescer.changed(changed);
+        }
+        coalescer.changed(deleted);
+        coalescer.deleted(deleted);
+        coalescer.created(temporary);
+        coalescer.deleted(temporary);
+        coalescer.flush();
+
+        var batch = delivered.get(5, TimeUnit.SECONDS);
+        assertEquals(Set.of(created), batch.created());
+        assertEquals(Set.of(changed), batch.changed());
+        assertEquals(Set.of(deleted), batch.deleted());
+        assertEquals(2005, coalescer.getSignals());
+        assertEquals(1, coalescer.getBatches());
+        coalescer.close();
+    }
+
+    @Test
+    @DisplayName("Deliver a batch once the window passed")
+    void deliverAfterWindow() throws Exception {
+        var delivered = new CompletableFuture<SignalCoalescer.Batch>();
+        var coalescer = new SignalCoalescer("handler", Duration.ofMillis(50), delivered::complete);
+        coalescer.changed(new DBusPath(COLLECTION + "/1"));
+        assertEquals(Set.of(new DBusPath(COLLECTION + "/1")), delivered.get(5, TimeUnit.SECONDS).changed());
+        coalescer.close();
+    }
+}
@@ -0,0 +1,124 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.SignalDispatcher;
+import org.purejava.secret.api.SignalDispatcher.OverflowPolicy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignalDispatcherTest {
+
+    @Test
+    @DisplayName("A slow handler does not delay other handlers")
+    void isolateSlowHandler() throws InterruptedException {
+        var dispatcher = new SignalDispatcher(8, OverflowPolicy.BLOCK);
+        var release = new CountDownLatch(1);
+        var fastDone = new CountDownLatch(3);
+        var slow = dispatcher.<String>subscribe("slow", signal -> await(release));
+        var fast = dispatcher.<String>subscribe("fast", signal -> fastDone.countDown());
+        for (String signal : List.of("a", "b", "c")) {
+            slow.offer(signal);
+            fast.offer(signal);
+        }
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        slow.close();
+        fast.close();
+    }
+
+    @Test
+    @DisplayName("Drop the oldest and coalesce equal signals on overflow")
+    void overflow() throws InterruptedException {
+        var dispatcher = new SignalDispatcher(2, OverflowPolicy.DROP_OLDEST);
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        List<String> received = new CopyOnWriteArrayList<>();
+        var done = new CountDownLatch(3);
+        var dropping = dispatcher.<String>subscribe("dropping", signal -> {
+            started.countDown();
+            await(release);
+            received.add(signal);
+            done.countDown();
+        });
+        dropping.offer("first");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        dropping.offer("a");
+        dropping.offer("b");
+        dropping.offer("c");
+        assertEquals(2, dropping.getQueueDepth());
+        assertEquals(1, dropping.getDropped());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "b", "c"), received);
+
+        var blocked = new CountDownLatch(1);
+        var coalescing = dispatcher.<String>subscribe("coalescing", signal -> await(blocked), OverflowPolicy.COALESCE);
+        coalescing.offer("x");
+        coalescing.offer("a");
+        coalescing.offer("b");
+        coalescing.offer("b");
+        assertEquals(1, coalescing.getCoalesced());
+        blocked.countDown();
+        coalescing.close();
+    }
+
+    @Test
+    @DisplayName("Lose no signal by default and coalesce by key on request")
+    void losslessDefaultAndCoalescingKey() throws InterruptedException {
+        assertEquals(OverflowPolicy.UNBOUNDED, SignalDispatcher.getDefault().getPolicy());
+        var dispatcher = new SignalDispatcher(2, OverflowPolicy.UNBOUNDED);
+        var release = new CountDownLatch(1);
+        var done = new CountDownLatch(5);
+        var lossless = dispatcher.<String>subscribe("lossless", signal -> {
+            await(release);
+            done.countDown();
+        });
+        for (String signal : List.of("a", "b", "c", "d", "e")) {
+            lossless.offer(signal);
+        }
+        assertEquals(0, lossless.getDropped());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        lossless.close();
+
+        // signals, that do not compare equal, like DBus signals, get merged by their key
+        var blocked = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        var coalescing = dispatcher.<Change>subscribe("coalescing", signal -> {
+            started.countDown();
+            await(blocked);
+        }, OverflowPolicy.COALESCE, change -> change.item);
+        coalescing.offer(new Change("x"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        coalescing.offer(new Change("a"));
+        coalescing.offer(new Change("b"));
+        coalescing.offer(new Change("b"));
+        assertEquals(1, coalescing.getCoalesced());
+        assertEquals(0, coalescing.getDropped());
+        blocked.countDown();
+        coalescing.close();
+    }
+
+    private static final class Change {
+        private final String item;
+
+        private Change(String item) {
+            this.item = item;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
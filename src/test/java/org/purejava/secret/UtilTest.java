@@ -0,0 +1,34 @@
+package org.purejava.secret;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.purejava.secret.api.Util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UtilTest {
+
+    @Test
+    @DisplayName("Decode a byte array without copying it")
+    void byteArrayIsNotCopied() {
+        byte[] large = new byte[4 * 1024 * 1024];
+        assertSame(large, Util.toByteArray(large));
+    }
+
+    @Test
+    @DisplayName("Decode other representations of a byte array")
+    void otherRepresentations() {
+        byte[] expected = {(byte) 0x80, 0x00, 0x7F};
+        List<Byte> boxed = new ArrayList<>(List.of((byte) 0x80, (byte) 0x00, (byte) 0x7F));
+        assertArrayEquals(expected, Util.toByteArray(boxed));
+        assertArrayEquals(expected, Util.toByteArray(ByteBuffer.wrap(expected)));
+        assertThrows(IllegalArgumentException.class, () -> Util.toByteArray(List.of("no byte")));
+        assertThrows(IllegalArgumentException.class, () -> Util.toByteArray(null));
+    }
+}
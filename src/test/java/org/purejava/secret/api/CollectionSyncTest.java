@@ -0,0 +1,109 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionSyncTest {
+
+    private static <T> T requireSuccess(DBusMessageHandler.DBusResult<T> result, String message) {
+        return switch (result) {
+            case DBusMessageHandler.DBusResult.Success<T> success -> success.value();
+            case DBusMessageHandler.DBusResult.Failure<T> failure -> fail(message, failure.error());
+        };
+    }
+
+    private static Collection createCollection(Service service, String name) {
+        var created = requireSuccess(service.createCollection(Collection.createProperties(name), ""),
+                "Failed to create collection");
+        return new Collection(Util.promptAndGetResultAsDBusPath(created.b));
+    }
+
+    @Test
+    @DisplayName("Only items directly within a collection belong to it")
+    void exactMembership() {
+        var collection = new Collection(new DBusPath(Static.DBusPath.COLLECTION + "/TESTSync"));
+        assertTrue(collection.contains(new DBusPath(Static.DBusPath.COLLECTION + "/TESTSync/1")));
+        assertFalse(collection.contains(new DBusPath(Static.DBusPath.COLLECTION + "/TESTSync2/1")));
+        assertFalse(collection.contains(new DBusPath(Static.DBusPath.COLLECTION + "/TESTSync/1/2")));
+        assertFalse(collection.contains(new DBusPath(Static.DBusPath.LOGIN_COLLECTION + "/1")));
+    }
+
+    @Test
+    @DisplayName("Copies are matched by their marker and never replace items of the target")
+    void copiesCarryMarker() throws Exception {
+        var service = new Service();
+        var session = new EncryptedSession();
+        assertTrue(session.setupEncryptedSession());
+        var source = createCollection(service, "TESTSyncSource");
+        var target = createCollection(service, "TESTSyncTarget");
+        try {
+            var original = requireSuccess(source.createItems(
+                    List.of(ItemSpec.of("Item", Map.of("sync", "1"), "source")), session, false).getFirst(),
+                    "Failed to create item");
+            var own = requireSuccess(target.createItems(
+                    List.of(ItemSpec.of("Item", Map.of("sync", "1"), "own")), session, false).getFirst(),
+                    "Failed to create item");
+
+            try (var sync = new CollectionSync(source, session, CollectionSync.into(target, session))) {
+                var result = requireSuccess(sync.fullSync(), "Failed to sync");
+                assertEquals(new CollectionSync.Result(1, 0, 0, 0), result);
+                assertFalse(requireSuccess(sync.fullSync(), "Failed to sync").hasChanges());
+            }
+
+            var copies = requireSuccess(target.searchItems(Map.of(CollectionSync.SOURCE_ATTRIBUTE, original.getPath())),
+                    "Failed to search copies");
+            assertEquals(1, copies.size());
+            assertNotEquals(own, copies.getFirst());
+            assertArrayEquals("own".toCharArray(), session.decrypt(new Item(own).getSecret(session)));
+            assertArrayEquals("source".toCharArray(), session.decrypt(new Item(copies.getFirst()).getSecret(session)));
+        } finally {
+            requireSuccess(source.delete(), "Failed to delete collection");
+            requireSuccess(target.delete(), "Failed to delete collection");
+        }
+    }
+
+    @Test
+    @DisplayName("Signals about items of other collections are not synced")
+    void ignoreForeignItems() throws InterruptedException {
+        var service = new Service();
+        var session = new EncryptedSession();
+        assertTrue(session.setupEncryptedSession());
+        var source = createCollection(service, "TESTSyncSource");
+        var other = createCollection(service, "TESTSyncOther");
+        List<DBusPath> upserted = new ArrayList<>();
+        SyncTarget recorder = new SyncTarget() {
+            @Override
+            public boolean upsert(DBusPath item, ItemSpec spec) {
+                upserted.add(item);
+                return true;
+            }
+
+            @Override
+            public boolean delete(DBusPath item) {
+                return true;
+            }
+        };
+        try (var sync = new CollectionSync(source, session, recorder)) {
+            requireSuccess(sync.fullSync(), "Failed to sync");
+            other.createItems(List.of(ItemSpec.of("Foreign", Map.of("sync", "2"), "foreign")), session, false);
+            var item = requireSuccess(source.createItems(
+                    List.of(ItemSpec.of("Own", Map.of("sync", "2"), "own")), session, false).getFirst(),
+                    "Failed to create item");
+            // let the signals pass the coalescing window
+            Thread.sleep(500);
+
+            requireSuccess(sync.sync(), "Failed to sync");
+            assertEquals(List.of(item), upserted);
+        } finally {
+            requireSuccess(source.delete(), "Failed to delete collection");
+            requireSuccess(other.delete(), "Failed to delete collection");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.DBusPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecretEventPublisherTest {
+
+    private static final String COLLECTION = "/org/freedesktop/secrets/collection/TESTEvents";
+
+    /**
+     * Requests a fixed number of events on subscribing and records what it gets.
+     */
+    private static class Recorder implements Flow.Subscriber<SecretEvent> {
+
+        private final long initialDemand;
+        private final List<SecretEvent> received = new CopyOnWriteArrayList<>();
+        private volatile Flow.Subscription subscription;
+
+        Recorder(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(SecretEvent item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void awaitReceived(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    private static SecretEvent event(int i) {
+        return new SecretEvent(SecretEvent.Type.ITEM_CHANGED, new DBusPath(COLLECTION + "/" + i));
+    }
+
+    @Test
+    @DisplayName("Every subscriber gets events as far as it requested them")
+    void perSubscriberDemand() throws InterruptedException {
+        var publisher = new SecretEventPublisher(16);
+        var slow = new Recorder(2);
+        var fast = new Recorder(Long.MAX_VALUE);
+        publisher.subscribe(slow);
+        publisher.subscribe(fast);
+        for (int i = 0; i < 5; i++) {
+            publisher.publish(event(i));
+        }
+        fast.awaitReceived(5);
+        slow.awaitReceived(2);
+        Thread.sleep(50);
+        assertEquals(5, fast.received.size());
+        assertEquals(List.of(event(0), event(1)), slow.received);
+
+        slow.subscription.request(3);
+        slow.awaitReceived(5);
+        assertEquals(5, slow.received.size());
+        assertEquals(0, publisher.getDropped());
+    }
+
+    @Test
+    @DisplayName("Drop and count events, when the buffer of a subscriber is full")
+    void dropWhenFull() throws InterruptedException {
+        var publisher = new SecretEventPublisher(4);
+        var stalled = new Recorder(0);
+        publisher.subscribe(stalled);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (stalled.subscription == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        for (int i = 0; i < 100; i++) {
+            publisher.publish(event(i));
+        }
+        assertTrue(publisher.getDropped() > 0);
+
+        stalled.subscription.request(Long.MAX_VALUE);
+        stalled.awaitReceived((int) (100 - publisher.getDropped()));
+        Thread.sleep(50);
+        assertEquals(100, stalled.received.size() + publisher.getDropped());
+    }
+
+    @Test
+    @DisplayName("A filter requests a new event for every event it rejects")
+    void filterKeepsDemand() throws InterruptedException {
+        var publisher = new SecretEventPublisher(64);
+        var matching = new Recorder(3);
+        publisher.filter(event -> event.path().getPath().endsWith("0")).subscribe(matching);
+        for (int i = 0; i < 50; i++) {
+            publisher.publish(event(i));
+        }
+        matching.awaitReceived(3);
+        Thread.sleep(50);
+        assertEquals(List.of(event(0), event(10), event(20)), matching.received);
+    }
+}
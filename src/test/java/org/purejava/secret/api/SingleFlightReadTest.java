@@ -0,0 +1,75 @@
+package org.purejava.secret.api;
+
+import org.freedesktop.dbus.interfaces.DBusInterface;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class SingleFlightReadTest {
+
+    /**
+     * A handler, whose remote object is never called, as the tests bring their own actions.
+     */
+    private static class Reader extends DBusMessageHandler<DBusInterface> {
+
+        Reader() {
+            super(Static.Service.SECRETS, "/org/freedesktop/secrets/collection/TESTSingleFlight", DBusInterface.class);
+            this.remote = new DBusInterface() {
+                @Override
+                public String getObjectPath() {
+                    return dbusPath;
+                }
+            };
+        }
+
+        @Override
+        protected String getUnavailableMessage() {
+            return "unavailable";
+        }
+
+        DBusResult<List<String>> read(DBusOperation<List<String>> action) {
+            return dBusRead("SearchItems", "TESTSingleFlight", "arguments", action);
+        }
+    }
+
+    @Test
+    @DisplayName("Identical reads in flight share one call, but not their result object")
+    void shareRoundTrip() throws Exception {
+        var reader = new Reader();
+        var calls = new AtomicInteger();
+        long sharedBefore = DBusMessageHandler.getSharedReads();
+        DBusMessageHandler.DBusOperation<List<String>> action = () -> {
+            calls.incrementAndGet();
+            // hold the call in flight until the second read joined it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (DBusMessageHandler.getSharedReads() == sharedBefore && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            return new ArrayList<>(List.of("a", "b"));
+        };
+
+        var leader = CompletableFuture.supplyAsync(() -> reader.read(action));
+        while (calls.get() == 0) {
+            Thread.sleep(5);
+        }
+        var follower = reader.read(action);
+        var first = (DBusMessageHandler.DBusResult.Success<List<String>>) leader.get(5, TimeUnit.SECONDS);
+        var second = (DBusMessageHandler.DBusResult.Success<List<String>>) follower;
+
+        assertEquals(1, calls.get());
+        assertEquals(sharedBefore + 1, DBusMessageHandler.getSharedReads());
+        assertEquals(first.value(), second.value());
+        assertNotSame(first.value(), second.value());
+
+        first.value().clear();
+        assertEquals(List.of("a", "b"), second.value());
+    }
+}